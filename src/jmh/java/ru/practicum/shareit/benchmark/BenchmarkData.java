@@ -0,0 +1,125 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingPhaseScheduler;
+import ru.practicum.shareit.booking.model.dto.BookingView;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Детерминированные наборы сущностей для бенчмарков маппинга и сериализации.
+ */
+public final class BenchmarkData {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private BenchmarkData() {
+    }
+
+    public static User user(long id) {
+        return new User(id, "Пользователь " + id, "user" + id + "@mail.ru");
+    }
+
+    public static List<Item> items(int count, int commentsPerItem) {
+        User owner = user(1);
+        List<Item> items = new ArrayList<>();
+
+        for (long id = 1; id <= count; id++) {
+            Item item = new Item();
+            item.setId(id);
+            item.setName("Дрель " + id);
+            item.setDescription("Аккумуляторная дрель с набором бит, модель " + id);
+            item.setAvailable(true);
+            item.setOwner(owner);
+
+            for (long commentId = 1; commentId <= commentsPerItem; commentId++) {
+                Comment comment = new Comment();
+                comment.setId(id * 1000 + commentId);
+                comment.setItem(item);
+                comment.setAuthor(user(commentId + 1));
+                comment.setText("Пользовался неделю, всё отлично");
+                comment.setCreated(BASE.plusHours(commentId));
+                item.getComments().add(comment);
+            }
+            item.setCommentCount(commentsPerItem);
+
+            items.add(item);
+        }
+
+        return items;
+    }
+
+    /**
+     * Последние limit комментариев каждой вещи, как их отдаёт CommentRepository для ответа о вещи.
+     */
+    public static List<Comment> latestComments(List<Item> items, int limit) {
+        List<Comment> comments = new ArrayList<>();
+        for (Item item : items) {
+            List<Comment> itemComments = item.getComments();
+            comments.addAll(itemComments.subList(Math.max(0, itemComments.size() - limit), itemComments.size()));
+        }
+
+        return comments;
+    }
+
+    public static List<Booking> bookings(int count) {
+        List<Item> items = items(Math.max(1, count / 10), 0);
+        List<Booking> bookings = new ArrayList<>();
+
+        for (long id = 1; id <= count; id++) {
+            Booking booking = new Booking();
+            booking.setId(id);
+            booking.setBooker(user(id % 50 + 2));
+            booking.setItem(items.get((int) (id % items.size())));
+            booking.setStart(BASE.plusDays(id));
+            booking.setEnd(BASE.plusDays(id).plusHours(5));
+            booking.setStatus(BookingStatus.APPROVED);
+            booking.setPhase(BookingPhaseScheduler.phaseAt(booking.getStart(), booking.getEnd(), LocalDateTime.now()));
+            bookings.add(booking);
+        }
+
+        return bookings;
+    }
+
+    public static List<BookingView> bookingViews(int count) {
+        List<BookingView> views = new ArrayList<>();
+
+        for (Booking booking : bookings(count)) {
+            Item item = booking.getItem();
+            User booker = booking.getBooker();
+            views.add(new BookingView(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                    item.getId(), item.getName(), item.getDescription(), booker.getId(), booker.getName(), booker.getEmail()));
+        }
+
+        return views;
+    }
+
+    public static List<ItemRequest> itemRequests(int count, int itemsPerRequest) {
+        User requestor = user(2);
+        List<ItemRequest> requests = new ArrayList<>();
+
+        for (long id = 1; id <= count; id++) {
+            ItemRequest request = new ItemRequest();
+            request.setId(id);
+            request.setRequestor(requestor);
+            request.setDescription("Нужна дрель на выходные " + id);
+            request.setCreationDate(BASE.plusHours(id));
+
+            for (Item item : items(itemsPerRequest, 0)) {
+                item.setRequest(request);
+                request.getResponseItems().add(item);
+            }
+
+            requests.add(request);
+        }
+
+        return requests;
+    }
+}
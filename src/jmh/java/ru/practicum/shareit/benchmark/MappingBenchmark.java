@@ -0,0 +1,61 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.model.dto.BookingResponse;
+import ru.practicum.shareit.booking.service.BookingStateFilter;
+import ru.practicum.shareit.item.model.dto.ItemResponse;
+import ru.practicum.shareit.request.model.dto.ItemRequestDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг сущностей в DTO внутри сервисов. Репозитории подменены заглушками,
+ * которые отдают заранее построенные сущности, поэтому измеряется только код сервисов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    @Param({"0", "20"})
+    private int commentsPerItem;
+
+    private MockedServices services;
+
+    @Setup
+    public void setUp() {
+        services = new MockedServices(pageSize, commentsPerItem);
+    }
+
+    @Benchmark
+    public List<BookingResponse> bookingResponses() {
+        return services.bookingService().getListAllBookingsForCurrentUser(MockedServices.USER_ID, BookingStateFilter.ALL, 0, pageSize);
+    }
+
+    @Benchmark
+    public List<ItemResponse> itemResponses() {
+        return services.itemService().getAllItemsFromUser(0, pageSize, MockedServices.USER_ID);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> itemRequestDtos() {
+        return services.itemRequestService().getAll(0, pageSize, MockedServices.USER_ID);
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.model.dto.BookingView;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.service.BookingListCache;
+import ru.practicum.shareit.booking.service.BookingPhaseScheduler;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingStateFilter;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.service.CommentEligibilityService;
+import ru.practicum.shareit.item.service.CommentWriteBehind;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.RequestEntityLoader;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Сервисы поверх заглушек репозиториев, которые отдают заранее построенные сущности.
+ */
+public class MockedServices {
+
+    public static final long USER_ID = 1L;
+
+    private static final int LATEST_COMMENTS = 10;
+
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final ItemRequestService itemRequestService;
+
+    public MockedServices(int pageSize, int commentsPerItem) {
+        UserService userService = mock(UserService.class);
+        when(userService.existsUser(anyLong())).thenReturn(true);
+        when(userService.getUserById(anyLong())).thenReturn(BenchmarkData.user(USER_ID));
+
+        List<Item> items = BenchmarkData.items(pageSize, commentsPerItem);
+        List<BookingView> bookings = BenchmarkData.bookingViews(pageSize);
+        List<ItemRequest> itemRequests = BenchmarkData.itemRequests(pageSize, 3);
+
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findAllByBookerId(any(), anyLong())).thenReturn(new SliceImpl<>(bookings));
+        when(bookingRepository.findLastAndNextBookingDates(anyCollection())).thenReturn(List.of());
+
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAllByOwnerId(any(), anyLong())).thenReturn(new PageImpl<>(items));
+        when(itemRepository.findAllByRequestIdIn(anyCollection())).thenReturn(responseItems(itemRequests));
+
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        List<Comment> latestComments = BenchmarkData.latestComments(items, LATEST_COMMENTS);
+        when(commentRepository.findLatestIdsByItemIdIn(anyCollection(), anyInt())).thenReturn(commentIds(latestComments));
+        when(commentRepository.findAllWithAuthorByIdIn(anyCollection())).thenReturn(latestComments);
+
+        ItemRequestRepository itemRequestRepository = mock(ItemRequestRepository.class);
+        when(itemRequestRepository.findByRequestorIdNot(any(), anyLong())).thenReturn(itemRequests);
+
+        itemRequestService = new ItemRequestService(userService, itemRequestRepository, itemRepository, new RequestEntityLoader());
+        itemService = new ItemService(itemRepository, commentRepository, bookingRepository, itemRequestService,
+                userService, mock(ItemSearchEngine.class), new RequestEntityLoader(),
+                mock(CommentEligibilityService.class), mock(ApplicationEventPublisher.class),
+                new StaticListableBeanFactory().getBeanProvider(CommentWriteBehind.class), LATEST_COMMENTS);
+        bookingService = new BookingService(bookingRepository, userService, itemService, mock(BookingAvailabilityIndex.class),
+                mock(BookingPhaseScheduler.class), uncachedBookingLists());
+    }
+
+    private static List<Long> commentIds(List<Comment> comments) {
+        List<Long> ids = new ArrayList<>();
+
+        for (Comment comment : comments) {
+            ids.add(comment.getId());
+        }
+
+        return ids;
+    }
+
+    private static List<Item> responseItems(List<ItemRequest> itemRequests) {
+        List<Item> responseItems = new ArrayList<>();
+
+        for (ItemRequest itemRequest : itemRequests) {
+            responseItems.addAll(itemRequest.getResponseItems());
+        }
+
+        return responseItems;
+    }
+
+    /**
+     * Кэш списков бронирований с выключенными фильтрами: бенчмарки меряют маппинг, а не попадания в кэш.
+     */
+    private static BookingListCache uncachedBookingLists() {
+        return new BookingListCache(new SimpleMeterRegistry(), 0, Duration.ZERO, EnumSet.allOf(BookingStateFilter.class));
+    }
+
+    public BookingService bookingService() {
+        return bookingService;
+    }
+
+    public ItemService itemService() {
+        return itemService;
+    }
+
+    public ItemRequestService itemRequestService() {
+        return itemRequestService;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.controller.BookingResponseSerializer;
+import ru.practicum.shareit.booking.model.dto.BookingResponse;
+import ru.practicum.shareit.booking.service.BookingStateFilter;
+import ru.practicum.shareit.item.controller.ItemResponseSerializer;
+import ru.practicum.shareit.item.model.dto.ItemResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списков ответов тем же ObjectMapper, что настраивает Spring Boot по умолчанию,
+ * рефлексивными BeanSerializer и сериализаторами, написанными вручную. Выделение памяти
+ * на операцию видно в gc.alloc.rate.norm при запуске с -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper handWrittenObjectMapper;
+    private List<BookingResponse> bookingResponses;
+    private List<ItemResponse> itemResponses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        handWrittenObjectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new SimpleModule()
+                        .addSerializer(BookingResponse.class, new BookingResponseSerializer())
+                        .addSerializer(ItemResponse.class, new ItemResponseSerializer()))
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        MockedServices services = new MockedServices(listSize, 5);
+
+        bookingResponses = services.bookingService()
+                .getListAllBookingsForCurrentUser(MockedServices.USER_ID, BookingStateFilter.ALL, 0, listSize);
+        itemResponses = services.itemService().getAllItemsFromUser(0, listSize, MockedServices.USER_ID);
+    }
+
+    @Benchmark
+    public byte[] bookingResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(bookingResponses);
+    }
+
+    @Benchmark
+    public byte[] itemResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(itemResponses);
+    }
+
+    @Benchmark
+    public byte[] bookingResponsesHandWritten() throws Exception {
+        return handWrittenObjectMapper.writeValueAsBytes(bookingResponses);
+    }
+
+    @Benchmark
+    public byte[] itemResponsesHandWritten() throws Exception {
+        return handWrittenObjectMapper.writeValueAsBytes(itemResponses);
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.model.dto.BookingResponse;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.service.BookingPhaseScheduler;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingStateFilter;
+import ru.practicum.shareit.item.model.dto.ItemResponse;
+import ru.practicum.shareit.item.search.InvertedIndexItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервисы целиком, вместе с запросами к H2 в памяти. Объёмы данных задаются параметрами,
+ * например -p users=1000 -p items=10000 -p bookings=100000 для быстрого прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ServiceBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Param({"10000"})
+    private int users;
+
+    @Param({"100000"})
+    private int items;
+
+    @Param({"1000000"})
+    private int bookings;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private ItemService itemService;
+    private ItemRequestService itemRequestService;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN",
+                        "shareit.cache.booking-lists.disabled-filters=ALL,CURRENT,PAST,FUTURE,WAITING,REJECTED")
+                .run();
+
+        seed(context.getBean(JdbcTemplate.class));
+
+        // Индексы в памяти прогреваются при старте контекста, когда таблицы ещё пусты.
+        context.getBean(BookingAvailabilityIndex.class).afterSingletonsInstantiated();
+        context.getBeanProvider(InvertedIndexItemSearchEngine.class).ifAvailable(InvertedIndexItemSearchEngine::afterSingletonsInstantiated);
+
+        bookingService = context.getBean(BookingService.class);
+        itemService = context.getBean(ItemService.class);
+        itemRequestService = context.getBean(ItemRequestService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingResponse> ownerBookings() {
+        return bookingService.getListAllBookingsForCurrentOwner(randomUser(), BookingStateFilter.ALL, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingResponse> bookerPastBookings() {
+        return bookingService.getListAllBookingsForCurrentUser(randomUser(), BookingStateFilter.PAST, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ItemResponse> ownerItems() {
+        return itemService.getAllItemsFromUser(0, PAGE_SIZE, randomUser());
+    }
+
+    @Benchmark
+    public List<ItemResponse> itemSearch() {
+        return itemService.itemSearch("дрель " + random.nextInt(100), randomUser(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> otherUsersRequests() {
+        return itemRequestService.getAll(0, PAGE_SIZE, randomUser());
+    }
+
+    private long randomUser() {
+        return random.nextInt(users) + 1;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> rows = new ArrayList<>();
+
+        for (int id = 1; id <= users; id++) {
+            rows.add(new Object[]{id, "Пользователь " + id, "user" + id + "@mail.ru"});
+        }
+        insert(jdbcTemplate, "INSERT INTO Users (id, name, email) VALUES (?, ?, ?)", rows);
+
+        for (int id = 1; id <= users; id++) {
+            rows.add(new Object[]{id, id % users + 1, "Нужна дрель " + id, Timestamp.valueOf(NOW.minusHours(id))});
+        }
+        insert(jdbcTemplate, "INSERT INTO Item_Request (id, requestor_id, description, creation_date) VALUES (?, ?, ?, ?)", rows);
+
+        for (int id = 1; id <= items; id++) {
+            Integer requestId = id % 10 == 0 ? random.nextInt(users) + 1 : null;
+            rows.add(new Object[]{id, "Дрель " + id, "Аккумуляторная дрель " + id % 100, id % 5 != 0, id % users + 1, requestId});
+        }
+        insert(jdbcTemplate, "INSERT INTO Items (id, name, description, available, owner_id, request_id) VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        String[] statuses = {"APPROVED", "APPROVED", "WAITING", "REJECTED"};
+        for (int id = 1; id <= bookings; id++) {
+            LocalDateTime start = NOW.plusHours(random.nextInt(-24 * 365, 24 * 365));
+            LocalDateTime end = start.plusHours(random.nextInt(1, 72));
+            rows.add(new Object[]{id, random.nextInt(users) + 1, random.nextInt(items) + 1,
+                    Timestamp.valueOf(start), Timestamp.valueOf(end),
+                    statuses[random.nextInt(statuses.length)], BookingPhaseScheduler.phaseAt(start, end, NOW).name()});
+
+            if (rows.size() == BATCH_SIZE) {
+                insert(jdbcTemplate, "INSERT INTO Bookings (id, booker_id, item_id, start_date_time, end_date_time, status, phase) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+            }
+        }
+        insert(jdbcTemplate, "INSERT INTO Bookings (id, booker_id, item_id, start_date_time, end_date_time, status, phase) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+
+        for (String table : List.of("Users", "Item_Request", "Items", "Bookings")) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (bookings + items + users + 1));
+        }
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private void insert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+
+        rows.clear();
+    }
+}
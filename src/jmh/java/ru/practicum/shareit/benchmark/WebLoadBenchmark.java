@@ -0,0 +1,138 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный прогон HTTP-слоя в двух режимах: пул платформенных потоков Tomcat и
+ * виртуальные потоки. В режиме SampleTime JMH сохраняет перцентили (p0.99) в JSON-отчёт.
+ * Пул Hikari намеренно меньше числа клиентских потоков, чтобы запросы конкурировали за соединения.
+ * Ответы 503 от фильтра допуска считаются отдельно счётчиками ok и rejected, а доля отказов выводится
+ * после каждой итерации: быстрые отказы иначе занижали бы перцентили. Любой другой статус кроме 200 прерывает прогон.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class WebLoadBenchmark {
+
+    private static final int USERS = 1_000;
+
+    @Param({"platform", "virtual"})
+    private String threadMode;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "logging.level.root=WARN",
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "server.tomcat.threads.max=50",
+                        "spring.threads.virtual.enabled=" + "virtual".equals(threadMode))
+                .run();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int id = 1; id <= USERS; id++) {
+            jdbcTemplate.update("INSERT INTO Users (name, email) VALUES (?, ?)", "Пользователь " + id, "load" + id + "@mail.ru");
+            jdbcTemplate.update("INSERT INTO Items (name, description, available, owner_id) " +
+                    "SELECT ?, ?, TRUE, MAX(id) FROM Users", "Дрель " + id, "Аккумуляторная дрель " + id);
+        }
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        httpClient = HttpClient.newBuilder().build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportRejections() {
+        long acceptedCount = accepted.sumThenReset();
+        long rejectedCount = rejected.sumThenReset();
+        long total = acceptedCount + rejectedCount;
+
+        System.out.printf("%nОтклонено 503: %d из %d запросов (%.2f%%)%n", rejectedCount, total,
+                total == 0 ? 0.0 : 100.0 * rejectedCount / total);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int ownerItems(ResponseCounters counters) throws Exception {
+        long userId = ThreadLocalRandom.current().nextInt(USERS) + 1;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/items?from=0&size=10"))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET()
+                .build();
+
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        int status = response.statusCode();
+
+        if (status == 503) {
+            counters.rejected++;
+            rejected.increment();
+        } else if (status == 200) {
+            counters.ok++;
+            accepted.increment();
+        } else {
+            throw new IllegalStateException("Неожиданный статус ответа: " + status);
+        }
+
+        return status;
+    }
+
+    /**
+     * Счётчики ответов потока, JMH выводит их отдельными строками ownerItems:ok и ownerItems:rejected.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ResponseCounters {
+
+        public long ok;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ok = 0;
+            rejected = 0;
+        }
+    }
+}
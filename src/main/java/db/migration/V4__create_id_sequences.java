@@ -0,0 +1,53 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Создаёт последовательности для пулового выделения ID (профиль sequence-ids). Оптимизатор pooled
+ * считает значение последовательности верхней границей блока, поэтому старт — max(id) + шаг:
+ * первый выданный блок начинается сразу за уже существующими строками.
+ */
+public class V4__create_id_sequences extends BaseJavaMigration {
+
+    private static final String ALLOCATION_SIZE_PLACEHOLDER = "id_allocation_size";
+
+    private static final Map<String, String> SEQUENCES_BY_TABLE = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES_BY_TABLE.put("Users", "users_seq");
+        SEQUENCES_BY_TABLE.put("Item_Request", "item_request_seq");
+        SEQUENCES_BY_TABLE.put("Items", "items_seq");
+        SEQUENCES_BY_TABLE.put("Bookings", "bookings_seq");
+        SEQUENCES_BY_TABLE.put("Comments", "comments_seq");
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        long allocationSize = Long.parseLong(context.getConfiguration().getPlaceholders()
+                .getOrDefault(ALLOCATION_SIZE_PLACEHOLDER, "50"));
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (Map.Entry<String, String> entry : SEQUENCES_BY_TABLE.entrySet()) {
+                long maxId = maxId(statement, entry.getKey());
+
+                statement.execute("CREATE SEQUENCE IF NOT EXISTS " + entry.getValue() +
+                        " START WITH " + (maxId + allocationSize) +
+                        " INCREMENT BY " + allocationSize);
+            }
+        }
+    }
+
+    private long maxId(Statement statement, String table) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -1,29 +1,52 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.model.dto.BookingListSlice;
 import ru.practicum.shareit.booking.model.dto.BookingRequest;
 import ru.practicum.shareit.booking.model.dto.BookingResponse;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdate;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdateResult;
+import ru.practicum.shareit.booking.model.dto.FreeSlotResponse;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.BookingStateFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * TODO Sprint add-bookings.
  */
 @Slf4j
+@Validated
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_STATUS_UPDATES = 100;
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -40,6 +63,13 @@ public class BookingController {
         return bookingService.confirmingOrRejectingBookingRequest(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingStatusUpdateResult> confirmingOrRejectingBookingRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                              @RequestBody @Size(max = MAX_STATUS_UPDATES) List<BookingStatusUpdate> updates) {
+        log.info("Запрос на пакетное подтверждение или отклонение {} бронирований пользователем по ID: {}", updates.size(), userId);
+        return bookingService.confirmingOrRejectingBookingRequests(userId, updates);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponse getBookingById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable("bookingId") Long bookingId) throws ResponseStatusException {
         log.info("Запрос на возвращение бронирования по ID: {}, пользователем по ID: {}", bookingId, userId);
@@ -47,22 +77,81 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingResponse> getListAllBookingsForCurrentBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                                    @RequestParam(name = "state", defaultValue = "all") String state,
-                                                                    @RequestParam(name = "from", defaultValue = "0") int from,
-                                                                    @RequestParam(name = "size", defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingResponse>> getListAllBookingsForCurrentBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                                    @RequestParam(name = "state", defaultValue = "all") String state,
+                                                                                    @RequestParam(name = "from", defaultValue = "0") int from,
+                                                                                    @RequestParam(name = "size", defaultValue = "10") int size,
+                                                                                    @RequestParam(name = "cursor", required = false) String cursor) {
         BookingStateFilter bookingStateFilter = BookingStateFilter.valueOf(state.toUpperCase());
         log.info("Запрос на возвращение всех бронирований со статусом {} текущего арендодателя по ID: {}", bookingStateFilter, userId);
-        return bookingService.getListAllBookingsForCurrentUser(userId, bookingStateFilter, from, size);
+
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getListAllBookingsForCurrentUser(userId, bookingStateFilter, from, size));
+        }
+
+        BookingListSlice slice = bookingService.getBookingsSliceForCurrentUser(userId, bookingStateFilter, cursor, size);
+        return toResponseEntity(slice);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponse> getListBookingsForCurrentOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                                @RequestParam(name = "state", defaultValue = "all") String state,
-                                                                @RequestParam(name = "from", defaultValue = "0") int from,
-                                                                @RequestParam(name = "size", defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingResponse>> getListBookingsForCurrentOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                                @RequestParam(name = "state", defaultValue = "all") String state,
+                                                                                @RequestParam(name = "from", defaultValue = "0") int from,
+                                                                                @RequestParam(name = "size", defaultValue = "10") int size,
+                                                                                @RequestParam(name = "cursor", required = false) String cursor) {
         BookingStateFilter bookingStateFilter = BookingStateFilter.valueOf(state.toUpperCase());
         log.info("Запрос на возвращение всех бронирований со статусом {} текущего хозяина по ID: {}", bookingStateFilter, userId);
-        return bookingService.getListAllBookingsForCurrentOwner(userId, bookingStateFilter, from, size);
+
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getListAllBookingsForCurrentOwner(userId, bookingStateFilter, from, size));
+        }
+
+        BookingListSlice slice = bookingService.getBookingsSliceForCurrentOwner(userId, bookingStateFilter, cursor, size);
+        return toResponseEntity(slice);
+    }
+
+    @GetMapping(path = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookingsForCurrentOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на выгрузку всей истории бронирований хозяина по ID: {}", userId);
+        bookingService.checkOwnerExists(userId);
+
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter bookingWriter = objectMapper.writerFor(BookingResponse.class).withRootValueSeparator("\n");
+
+            try (SequenceWriter sequenceWriter = bookingWriter.writeValues(outputStream)) {
+                bookingService.exportBookingsForCurrentOwner(userId, booking -> writeLine(sequenceWriter, booking));
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/items/{itemId}/free-slots")
+    public List<FreeSlotResponse> getFreeSlots(@PathVariable("itemId") Long itemId,
+                                               @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Запрос на возвращение свободных окон предмета по ID: {} с {} по {}", itemId, from, to);
+        return bookingService.getFreeSlots(itemId, from, to);
+    }
+
+    private void writeLine(SequenceWriter sequenceWriter, BookingResponse booking) {
+        try {
+            sequenceWriter.write(booking);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResponseEntity<List<BookingResponse>> toResponseEntity(BookingListSlice slice) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        String nextCursor = slice.getNextCursor();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+
+        return response.body(slice.getBookings());
     }
 }
\ No newline at end of file
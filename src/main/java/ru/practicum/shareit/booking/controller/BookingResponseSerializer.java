@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingResponse;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import static ru.practicum.shareit.util.JsonFieldWriter.writeDate;
+import static ru.practicum.shareit.util.JsonFieldWriter.writeLong;
+import static ru.practicum.shareit.util.JsonFieldWriter.writeString;
+
+/**
+ * Сериализатор BookingResponse без рефлексии: поля пишутся напрямую в генератор в том же порядке
+ * и формате, что и у BeanSerializer. Используется списками бронирований и выгрузкой NDJSON.
+ */
+@JsonComponent
+public class BookingResponseSerializer extends StdSerializer<BookingResponse> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString START = new SerializedString("start");
+    private static final SerializableString END = new SerializedString("end");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString BOOKER = new SerializedString("booker");
+    private static final SerializableString ITEM = new SerializedString("item");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+
+    public BookingResponseSerializer() {
+        super(BookingResponse.class);
+    }
+
+    @Override
+    public void serialize(BookingResponse booking, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        JsonSerializer<Object> dateSerializer = provider.findValueSerializer(LocalDateTime.class);
+
+        gen.writeStartObject(booking);
+        writeLong(gen, ID, booking.getId());
+        writeDate(gen, START, booking.getStart(), dateSerializer, provider);
+        writeDate(gen, END, booking.getEnd(), dateSerializer, provider);
+
+        BookingStatus status = booking.getStatus();
+        writeString(gen, STATUS, status == null ? null : status.name());
+
+        gen.writeFieldName(BOOKER);
+        writeBooker(gen, booking.getBooker());
+
+        gen.writeFieldName(ITEM);
+        writeItem(gen, booking.getItem());
+        gen.writeEndObject();
+    }
+
+    private void writeBooker(JsonGenerator gen, User booker) throws IOException {
+        if (booker == null) {
+            gen.writeNull();
+            return;
+        }
+
+        gen.writeStartObject(booker);
+        writeLong(gen, ID, booker.getId());
+        writeString(gen, NAME, booker.getName());
+        writeString(gen, EMAIL, booker.getEmail());
+        gen.writeEndObject();
+    }
+
+    private void writeItem(JsonGenerator gen, BookingResponse.ItemRes item) throws IOException {
+        if (item == null) {
+            gen.writeNull();
+            return;
+        }
+
+        gen.writeStartObject(item);
+        writeLong(gen, ID, item.getId());
+        writeString(gen, NAME, item.getName());
+        writeString(gen, DESCRIPTION, item.getDescription());
+        gen.writeEndObject();
+    }
+}
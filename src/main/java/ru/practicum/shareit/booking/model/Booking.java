@@ -44,4 +44,8 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     private BookingStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", updatable = false)
+    private BookingPhase phase;
 }
\ No newline at end of file
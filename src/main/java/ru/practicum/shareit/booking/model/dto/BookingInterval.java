@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingInterval {
+
+    private Long bookingId;
+
+    private Long itemId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+}
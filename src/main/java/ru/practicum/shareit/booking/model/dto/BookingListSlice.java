@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingListSlice {
+
+    private List<BookingResponse> bookings;
+
+    private String nextCursor;
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.BookingPhase;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingPhaseBoundary {
+
+    private Long bookingId;
+
+    private Long bookerId;
+
+    private Long ownerId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private BookingPhase phase;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Публикуется после того, как у бронирований сменилась фаза. Содержит авторов бронирований
+ * и владельцев вещей, чьи списки CURRENT/PAST/FUTURE изменились.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingPhaseChangedEvent {
+
+    private Set<Long> bookerIds;
+
+    private Set<Long> ownerIds;
+}
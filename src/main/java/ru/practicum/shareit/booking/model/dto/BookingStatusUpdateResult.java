@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingStatusUpdateResult {
+
+    private Long bookingId;
+
+    private int status;
+
+    private String message;
+
+    private BookingResponse booking;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBookingDates {
+
+    private Long itemId;
+
+    private LocalDateTime lastBooking;
+
+    private LocalDateTime nextBooking;
+}
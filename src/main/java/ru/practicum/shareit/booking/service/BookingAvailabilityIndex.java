@@ -0,0 +1,258 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.dto.FreeSlotResponse;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Индекс занятости вещей в памяти: по каждой вещи хранит отсортированные по началу интервалы
+ * бронирований в статусах WAITING и APPROVED. Интервалы полуоткрытые [start, end).
+ * Доступ к расписанию вещи защищён одной из полос блокировок, выбранной по ID вещи.
+ * Изменения, сделанные внутри транзакции, откатываются вместе с ней.
+ */
+@Slf4j
+@Component
+public class BookingAvailabilityIndex implements SmartInitializingSingleton {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final Comparator<BookingInterval> BY_START_AND_ID = Comparator
+            .comparing(BookingInterval::getStart)
+            .thenComparing(BookingInterval::getBookingId);
+
+    private final BookingRepository bookingRepository;
+    private final ConcurrentMap<Long, ItemSchedule> schedules = new ConcurrentHashMap<>();
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    @Autowired
+    public BookingAvailabilityIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<BookingInterval> activeIntervals = bookingRepository.findActiveIntervals();
+
+        for (BookingInterval interval : activeIntervals) {
+            ItemSchedule schedule = schedules.computeIfAbsent(interval.getItemId(), id -> new ItemSchedule());
+            schedule.add(interval);
+        }
+
+        log.info("Индекс занятости вещей загружен: {} бронирований по {} вещам", activeIntervals.size(), schedules.size());
+    }
+
+    public <T> T executeLocked(Long itemId, Supplier<T> action) {
+        Lock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return isFree(itemId, start, end, null);
+    }
+
+    /**
+     * Проверяет окно, не считая пересечением интервал самого бронирования ignoredBookingId,
+     * например при подтверждении уже учтённого в индексе ожидающего бронирования.
+     */
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end, Long ignoredBookingId) {
+        return executeLocked(itemId, () -> {
+            ItemSchedule schedule = schedules.get(itemId);
+
+            if (schedule == null) {
+                return true;
+            }
+
+            return !schedule.hasOverlap(start, end, ignoredBookingId);
+        });
+    }
+
+    public void add(BookingInterval interval) {
+        Long itemId = interval.getItemId();
+        Long bookingId = interval.getBookingId();
+
+        BookingInterval previous = executeLocked(itemId, () -> {
+            ItemSchedule schedule = schedules.computeIfAbsent(itemId, id -> new ItemSchedule());
+            schedule.pruneEndedBefore(LocalDateTime.now());
+            return schedule.add(interval);
+        });
+
+        onRollback(() -> {
+            if (previous == null) {
+                remove(itemId, bookingId);
+            } else {
+                add(previous);
+            }
+        });
+    }
+
+    public void remove(Long itemId, Long bookingId) {
+        BookingInterval removed = executeLocked(itemId, () -> {
+            ItemSchedule schedule = schedules.get(itemId);
+
+            if (schedule == null) {
+                return null;
+            }
+
+            return schedule.remove(bookingId);
+        });
+
+        if (removed != null) {
+            onRollback(() -> add(removed));
+        }
+    }
+
+    public List<FreeSlotResponse> findFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return executeLocked(itemId, () -> {
+            ItemSchedule schedule = schedules.get(itemId);
+
+            if (schedule == null) {
+                List<FreeSlotResponse> wholeWindow = new ArrayList<>();
+                wholeWindow.add(new FreeSlotResponse(from, to));
+                return wholeWindow;
+            }
+
+            return schedule.freeSlots(from, to);
+        });
+    }
+
+    private void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    private Lock lockFor(Long itemId) {
+        int stripe = Math.floorMod(itemId.hashCode(), LOCK_STRIPES);
+        return locks[stripe];
+    }
+
+    private static BookingInterval probe(LocalDateTime start) {
+        return new BookingInterval(Long.MIN_VALUE, null, start, start);
+    }
+
+    /**
+     * Расписание одной вещи. Самая длинная бронь ограничивает, насколько раньше начала
+     * запрашиваемого окна могут стартовать пересекающиеся с ним интервалы.
+     * Интервалы дополнительно проиндексированы по ID бронирования, чтобы удалять их без обхода.
+     */
+    private static class ItemSchedule {
+
+        private final NavigableSet<BookingInterval> slots = new TreeSet<>(BY_START_AND_ID);
+
+        private final Map<Long, BookingInterval> slotsByBookingId = new HashMap<>();
+
+        private Duration maxDuration = Duration.ZERO;
+
+        BookingInterval add(BookingInterval interval) {
+            BookingInterval previous = remove(interval.getBookingId());
+            slots.add(interval);
+            slotsByBookingId.put(interval.getBookingId(), interval);
+
+            Duration duration = Duration.between(interval.getStart(), interval.getEnd());
+            if (duration.compareTo(maxDuration) > 0) {
+                maxDuration = duration;
+            }
+
+            return previous;
+        }
+
+        BookingInterval remove(Long bookingId) {
+            BookingInterval slot = slotsByBookingId.remove(bookingId);
+
+            if (slot != null) {
+                slots.remove(slot);
+            }
+
+            return slot;
+        }
+
+        void pruneEndedBefore(LocalDateTime moment) {
+            NavigableSet<BookingInterval> ended = slots.headSet(probe(moment.minus(maxDuration)), false);
+
+            for (BookingInterval slot : ended) {
+                slotsByBookingId.remove(slot.getBookingId());
+            }
+            ended.clear();
+        }
+
+        boolean hasOverlap(LocalDateTime start, LocalDateTime end, Long ignoredBookingId) {
+            NavigableSet<BookingInterval> startedBeforeEnd = slots.headSet(probe(end), false);
+            LocalDateTime earliestPossibleStart = start.minus(maxDuration);
+
+            for (BookingInterval slot : startedBeforeEnd.descendingSet()) {
+                if (!slot.getStart().isAfter(earliestPossibleStart)) {
+                    break;
+                }
+
+                if (slot.getEnd().isAfter(start) && !slot.getBookingId().equals(ignoredBookingId)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        List<FreeSlotResponse> freeSlots(LocalDateTime from, LocalDateTime to) {
+            List<FreeSlotResponse> freeSlots = new ArrayList<>();
+            NavigableSet<BookingInterval> window = slots.subSet(probe(from.minus(maxDuration)), true, probe(to), false);
+            LocalDateTime cursor = from;
+
+            for (BookingInterval slot : window) {
+                if (!slot.getEnd().isAfter(cursor)) {
+                    continue;
+                }
+
+                if (slot.getStart().isAfter(cursor)) {
+                    freeSlots.add(new FreeSlotResponse(cursor, slot.getStart()));
+                }
+
+                cursor = slot.getEnd();
+            }
+
+            if (cursor.isBefore(to)) {
+                freeSlots.add(new FreeSlotResponse(cursor, to));
+            }
+
+            return freeSlots;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.dto.BookingPhaseChangedEvent;
+import ru.practicum.shareit.booking.model.dto.BookingResponse;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц списков бронирований по (пользователь, роль). Все страницы пользователя в роли
+ * лежат в одной записи, поэтому сброс пользователя — одно удаление. При сбросе запись заменяется
+ * целиком, так что страница, загруженная одновременно со сбросом, попадает в старую запись и не переживает его.
+ * Имена вещей и пользователей в закэшированных страницах могут отставать не дольше срока жизни записи.
+ */
+@Component
+public class BookingListCache {
+
+    private static final Set<BookingStateFilter> TIME_DEPENDENT_FILTERS =
+            EnumSet.of(BookingStateFilter.CURRENT, BookingStateFilter.PAST, BookingStateFilter.FUTURE);
+
+    private final Cache<UserRole, ConcurrentMap<PageKey, List<BookingResponse>>> cache;
+    private final Set<BookingStateFilter> disabledFilters;
+    private final Map<BookingStateFilter, Counter> hits = new EnumMap<>(BookingStateFilter.class);
+    private final Map<BookingStateFilter, Counter> misses = new EnumMap<>(BookingStateFilter.class);
+
+    @Autowired
+    public BookingListCache(MeterRegistry meterRegistry,
+                            @Value("${shareit.cache.booking-lists.maximum-size:10000}") long maximumSize,
+                            @Value("${shareit.cache.booking-lists.expire-after-write:5m}") Duration expireAfterWrite,
+                            @Value("${shareit.cache.booking-lists.disabled-filters:}") Set<BookingStateFilter> disabledFilters) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.disabledFilters = disabledFilters.isEmpty() ? EnumSet.noneOf(BookingStateFilter.class) : EnumSet.copyOf(disabledFilters);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "booking-lists");
+
+        for (BookingStateFilter filter : BookingStateFilter.values()) {
+            hits.put(filter, Counter.builder("shareit.booking.lists.cache")
+                    .tag("filter", filter.name())
+                    .tag("result", "hit")
+                    .register(meterRegistry));
+            misses.put(filter, Counter.builder("shareit.booking.lists.cache")
+                    .tag("filter", filter.name())
+                    .tag("result", "miss")
+                    .register(meterRegistry));
+        }
+    }
+
+    public List<BookingResponse> get(Long userId, Role role, BookingStateFilter filter, int from, int size,
+                                     Supplier<List<BookingResponse>> loader) {
+        if (disabledFilters.contains(filter)) {
+            return loader.get();
+        }
+
+        ConcurrentMap<PageKey, List<BookingResponse>> pages = cache.get(new UserRole(userId, role), key -> new ConcurrentHashMap<>());
+        PageKey pageKey = new PageKey(filter, from, size);
+
+        List<BookingResponse> cachedPage = pages.get(pageKey);
+        if (cachedPage != null) {
+            hits.get(filter).increment();
+            return cachedPage;
+        }
+
+        misses.get(filter).increment();
+        List<BookingResponse> page = List.copyOf(loader.get());
+        pages.put(pageKey, page);
+
+        return page;
+    }
+
+    /**
+     * Сбрасывает списки автора бронирования и владельца вещи. Внутри транзакции сброс
+     * откладывается до коммита, чтобы параллельное чтение не закэшировало старые данные.
+     */
+    public void invalidateAfterCommit(Long bookerId, Long ownerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(bookerId, ownerId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(bookerId, ownerId);
+            }
+        });
+    }
+
+    @EventListener
+    public void onPhaseChanged(BookingPhaseChangedEvent event) {
+        for (Long bookerId : event.getBookerIds()) {
+            dropTimeDependentPages(new UserRole(bookerId, Role.BOOKER));
+        }
+
+        for (Long ownerId : event.getOwnerIds()) {
+            dropTimeDependentPages(new UserRole(ownerId, Role.OWNER));
+        }
+    }
+
+    private void invalidate(Long bookerId, Long ownerId) {
+        cache.invalidate(new UserRole(bookerId, Role.BOOKER));
+        cache.invalidate(new UserRole(ownerId, Role.OWNER));
+    }
+
+    private void dropTimeDependentPages(UserRole userRole) {
+        cache.asMap().computeIfPresent(userRole, (key, pages) -> {
+            ConcurrentMap<PageKey, List<BookingResponse>> keptPages = new ConcurrentHashMap<>();
+
+            for (Map.Entry<PageKey, List<BookingResponse>> page : pages.entrySet()) {
+                if (!TIME_DEPENDENT_FILTERS.contains(page.getKey().filter())) {
+                    keptPages.put(page.getKey(), page.getValue());
+                }
+            }
+
+            return keptPages;
+        });
+    }
+
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+
+    private record UserRole(Long userId, Role role) {
+    }
+
+    private record PageKey(BookingStateFilter filter, int from, int size) {
+    }
+}
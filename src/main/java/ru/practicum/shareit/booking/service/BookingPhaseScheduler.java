@@ -0,0 +1,190 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.dto.BookingPhaseBoundary;
+import ru.practicum.shareit.booking.model.dto.BookingPhaseChangedEvent;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Поддерживает колонку phase бронирований (FUTURE → CURRENT → PAST). Переходы, которые наступят
+ * в пределах горизонта, лежат в очереди по времени и применяются пакетным UPDATE по ID.
+ * Периодическая подгрузка забирает из базы и пропущенные переходы, например после перезапуска.
+ * Фаза может отставать от реального времени не больше чем на интервал тика.
+ */
+@Slf4j
+@Component
+public class BookingPhaseScheduler {
+
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+
+    private final PriorityBlockingQueue<PhaseTransition> transitions =
+            new PriorityBlockingQueue<>(64, Comparator.comparing(PhaseTransition::at));
+    private final Set<PhaseTransition> queued = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public BookingPhaseScheduler(BookingRepository bookingRepository, ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${shareit.booking.phase.horizon:PT1H}") Duration horizon) {
+        this.bookingRepository = bookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizon = horizon;
+    }
+
+    public static BookingPhase phaseAt(LocalDateTime start, LocalDateTime end, LocalDateTime moment) {
+        if (end.isBefore(moment)) {
+            return BookingPhase.PAST;
+        }
+
+        if (!start.isAfter(moment)) {
+            return BookingPhase.CURRENT;
+        }
+
+        return BookingPhase.FUTURE;
+    }
+
+    /**
+     * Ставит переходы нового бронирования в очередь. Внутри транзакции постановка откладывается
+     * до коммита, чтобы откаченное бронирование не попало в очередь.
+     */
+    public void scheduleAfterCommit(Booking booking) {
+        BookingPhaseBoundary boundary = new BookingPhaseBoundary(booking.getId(), booking.getBooker().getId(),
+                booking.getItem().getOwner().getId(), booking.getStart(), booking.getEnd(), booking.getPhase());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(boundary, LocalDateTime.now().plus(horizon));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(boundary, LocalDateTime.now().plus(horizon));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.phase.refill-interval:PT15M}")
+    public void refill() {
+        LocalDateTime until = LocalDateTime.now().plus(horizon);
+        List<BookingPhaseBoundary> boundaries = bookingRepository.findPhaseBoundariesUntil(until);
+
+        for (BookingPhaseBoundary boundary : boundaries) {
+            enqueue(boundary, until);
+        }
+
+        log.debug("Очередь смены фаз бронирований пополнена до {}: {} переходов в очереди", until, transitions.size());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.phase.tick-interval:PT1S}")
+    public void applyDueTransitions() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, PhaseTransition> dueByBookingId = new LinkedHashMap<>();
+
+        PhaseTransition next = transitions.poll();
+        while (next != null) {
+            if (!next.isDue(now)) {
+                transitions.add(next);
+                break;
+            }
+
+            queued.remove(next);
+            dueByBookingId.put(next.bookingId(), next);
+            next = transitions.poll();
+        }
+
+        if (dueByBookingId.isEmpty()) {
+            return;
+        }
+
+        Map<BookingPhase, List<Long>> bookingIdsByPhase = new EnumMap<>(BookingPhase.class);
+        Set<Long> bookerIds = new HashSet<>();
+        Set<Long> ownerIds = new HashSet<>();
+
+        for (PhaseTransition transition : dueByBookingId.values()) {
+            bookingIdsByPhase.computeIfAbsent(transition.phase(), phase -> new ArrayList<>()).add(transition.bookingId());
+            bookerIds.add(transition.bookerId());
+            ownerIds.add(transition.ownerId());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<BookingPhase, List<Long>> entry : bookingIdsByPhase.entrySet()) {
+                    bookingRepository.updatePhase(entry.getKey(), entry.getValue());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Не удалось сменить фазу у {} бронирований, повтор на следующем тике", dueByBookingId.size(), e);
+
+            for (PhaseTransition transition : dueByBookingId.values()) {
+                if (queued.add(transition)) {
+                    transitions.add(transition);
+                }
+            }
+            return;
+        }
+
+        log.debug("Сменилась фаза у {} бронирований", dueByBookingId.size());
+        eventPublisher.publishEvent(new BookingPhaseChangedEvent(bookerIds, ownerIds));
+    }
+
+    private void enqueue(BookingPhaseBoundary boundary, LocalDateTime until) {
+        if (boundary.getPhase() == BookingPhase.FUTURE && !boundary.getStart().isAfter(until)) {
+            offer(new PhaseTransition(boundary.getBookingId(), boundary.getBookerId(), boundary.getOwnerId(),
+                    BookingPhase.CURRENT, boundary.getStart()));
+        }
+
+        if (boundary.getPhase() != BookingPhase.PAST && !boundary.getEnd().isAfter(until)) {
+            offer(new PhaseTransition(boundary.getBookingId(), boundary.getBookerId(), boundary.getOwnerId(),
+                    BookingPhase.PAST, boundary.getEnd()));
+        }
+    }
+
+    private void offer(PhaseTransition transition) {
+        if (queued.add(transition)) {
+            transitions.add(transition);
+        }
+    }
+
+    /**
+     * Переход бронирования в фазу phase в момент at. В PAST бронирование переходит строго после окончания,
+     * в CURRENT — в момент начала, как в прежних условиях по CURRENT_TIMESTAMP.
+     */
+    private record PhaseTransition(Long bookingId, Long bookerId, Long ownerId, BookingPhase phase, LocalDateTime at) {
+
+        boolean isDue(LocalDateTime now) {
+            if (phase == BookingPhase.PAST) {
+                return at.isBefore(now);
+            }
+
+            return !at.isAfter(now);
+        }
+    }
+}
@@ -2,55 +2,92 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.dto.BookingListSlice;
 import ru.practicum.shareit.booking.model.dto.BookingRequest;
 import ru.practicum.shareit.booking.model.dto.BookingResponse;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdate;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdateResult;
+import ru.practicum.shareit.booking.model.dto.BookingView;
+import ru.practicum.shareit.booking.model.dto.FreeSlotResponse;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.util.MyPageRequest;
+import ru.practicum.shareit.util.SeekCursor;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Transactional(readOnly = true)
 @Slf4j
 public class BookingService {
 
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemService itemService;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final BookingPhaseScheduler phaseScheduler;
+    private final BookingListCache bookingListCache;
 
     @Autowired
-    public BookingService(BookingRepository bookingRepository, UserService userService, ItemService itemService) {
+    public BookingService(BookingRepository bookingRepository, UserService userService, ItemService itemService,
+                          BookingAvailabilityIndex availabilityIndex, BookingPhaseScheduler phaseScheduler,
+                          BookingListCache bookingListCache) {
         this.bookingRepository = bookingRepository;
         this.userService = userService;
         this.itemService = itemService;
-
+        this.availabilityIndex = availabilityIndex;
+        this.phaseScheduler = phaseScheduler;
+        this.bookingListCache = bookingListCache;
     }
 
+    @Transactional
     public BookingResponse add(Long bookerId, BookingRequest bookingRequest) throws ResponseStatusException {
 
         Booking bookingEntity = toBooking(bookerId, bookingRequest);
 
         checkPossibilityBooking(bookingEntity);
 
-        Booking saveBookingEntity = bookingRepository.save(bookingEntity);
+        Long itemId = bookingEntity.getItem().getId();
+        Booking saveBookingEntity = availabilityIndex.executeLocked(itemId, () -> {
+            checkItemIsFree(bookingEntity);
+
+            Booking savedBooking = bookingRepository.save(bookingEntity);
+            availabilityIndex.add(toBookingInterval(savedBooking));
+
+            return savedBooking;
+        });
+
+        phaseScheduler.scheduleAfterCommit(saveBookingEntity);
+        bookingListCache.invalidateAfterCommit(bookerId, saveBookingEntity.getItem().getOwner().getId());
 
         BookingResponse bookingResponse = toBookingResponse(saveBookingEntity);
 
         return bookingResponse;
     }
 
+    @Transactional
     public BookingResponse confirmingOrRejectingBookingRequest(Long userId, Long bookingId, Boolean solution) {
         Booking booking = getBooking(bookingId);
         Item item = booking.getItem();
@@ -62,19 +99,105 @@ public class BookingService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Пользователь по ID: " + userId + " не может изменить статус бронирования по ID: " + bookingId + ", потому что не является владельцем вещи");
         }
 
+        Booking saveBookingEntity;
         if (solution) {
-            booking.setStatus(BookingStatus.APPROVED);
+            saveBookingEntity = availabilityIndex.executeLocked(item.getId(), () -> {
+                checkItemIsFree(booking);
+                booking.setStatus(BookingStatus.APPROVED);
+
+                Booking approvedBooking = bookingRepository.save(booking);
+                availabilityIndex.add(toBookingInterval(approvedBooking));
+
+                return approvedBooking;
+            });
         } else {
             booking.setStatus(BookingStatus.REJECTED);
+            saveBookingEntity = bookingRepository.save(booking);
+            availabilityIndex.remove(item.getId(), bookingId);
         }
 
-        Booking saveBookingEntity = bookingRepository.save(booking);
+        bookingListCache.invalidateAfterCommit(booking.getBooker().getId(), ownerId);
 
         BookingResponse bookingResponse = toBookingResponse(saveBookingEntity);
 
         return bookingResponse;
     }
 
+    @Transactional
+    public List<BookingStatusUpdateResult> confirmingOrRejectingBookingRequests(Long userId, List<BookingStatusUpdate> updates) {
+        Set<Long> bookingIds = new HashSet<>();
+        for (BookingStatusUpdate update : updates) {
+            if (update.getBookingId() != null) {
+                bookingIds.add(update.getBookingId());
+            }
+        }
+
+        Map<Long, Booking> bookingsById = new HashMap<>();
+        if (!bookingIds.isEmpty()) {
+            for (Booking booking : bookingRepository.findAllWithItemOwnerAndBookerByIdIn(bookingIds)) {
+                bookingsById.put(booking.getId(), booking);
+            }
+        }
+
+        List<BookingStatusUpdateResult> results = new ArrayList<>();
+
+        for (BookingStatusUpdate update : updates) {
+            Long bookingId = update.getBookingId();
+            Boolean solution = update.getApproved();
+
+            if (bookingId == null || solution == null) {
+                results.add(new BookingStatusUpdateResult(bookingId, HttpStatus.BAD_REQUEST.value(),
+                        "Для изменения статуса нужны ID бронирования и решение", null));
+                continue;
+            }
+
+            Booking booking = bookingsById.get(bookingId);
+            if (booking == null) {
+                log.info("При пакетном изменении статуса бронирование не найдено по ID: {}", bookingId);
+                results.add(new BookingStatusUpdateResult(bookingId, HttpStatus.NOT_FOUND.value(),
+                        "При запросе на возвращение бронирование не найдено по ID: " + bookingId + " для изменения статуса", null));
+                continue;
+            }
+
+            Long ownerId = booking.getItem().getOwner().getId();
+            if (!userId.equals(ownerId)) {
+                log.info("Пользователь по ID: {} не может изменить статус бронирования по ID: {}, потому что не является владельцем вещи", userId, bookingId);
+                results.add(new BookingStatusUpdateResult(bookingId, HttpStatus.FORBIDDEN.value(),
+                        "Пользователь по ID: " + userId + " не может изменить статус бронирования по ID: " + bookingId + ", потому что не является владельцем вещи", null));
+                continue;
+            }
+
+            Long itemId = booking.getItem().getId();
+            if (solution) {
+                boolean approved = availabilityIndex.executeLocked(itemId, () -> {
+                    if (!availabilityIndex.isFree(itemId, booking.getStart(), booking.getEnd(), bookingId)) {
+                        return false;
+                    }
+
+                    booking.setStatus(BookingStatus.APPROVED);
+                    availabilityIndex.add(toBookingInterval(booking));
+
+                    return true;
+                });
+
+                if (!approved) {
+                    log.info("При пакетном изменении статуса бронирование по ID: {} пересекается с другим бронированием предмета по ID: {}", bookingId, itemId);
+                    results.add(new BookingStatusUpdateResult(bookingId, HttpStatus.CONFLICT.value(),
+                            "Предмет по ID: " + itemId + " уже забронирован на пересекающееся время! Начало: " + booking.getStart() + ", конец: " + booking.getEnd(), null));
+                    continue;
+                }
+            } else {
+                booking.setStatus(BookingStatus.REJECTED);
+                availabilityIndex.remove(itemId, bookingId);
+            }
+
+            bookingListCache.invalidateAfterCommit(booking.getBooker().getId(), ownerId);
+            results.add(new BookingStatusUpdateResult(bookingId, HttpStatus.OK.value(), null, toBookingResponse(booking)));
+        }
+
+        return results;
+    }
+
     public BookingResponse getBookingById(Long userId, Long bookingId) throws ResponseStatusException {
         Optional<Booking> bookingOpt = bookingRepository.findById(bookingId);
 
@@ -109,6 +232,20 @@ public class BookingService {
         return booking;
     }
 
+    public List<FreeSlotResponse> getFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to) throws ResponseStatusException {
+        itemService.getItemById(itemId);
+
+        if (!to.isAfter(from)) {
+            log.info("Конец окна поиска свободного времени должен быть позже начала! Начало: {}, конец: {}, для предмета по ID: {}", from, to, itemId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Конец окна поиска свободного времени должен быть позже начала! Начало: " + from + ", конец: " + to + ", для предмета по ID: " + itemId);
+        }
+
+        List<FreeSlotResponse> freeSlots = availabilityIndex.findFreeSlots(itemId, from, to);
+
+        return freeSlots;
+    }
+
     private boolean isOwnerOrBooker(Booking booking, Long userId) {
 
         Item item = booking.getItem();
@@ -132,6 +269,7 @@ public class BookingService {
         LocalDateTime start = bookingRequest.getStart();
         LocalDateTime end = bookingRequest.getEnd();
         BookingStatus status = BookingStatus.WAITING;
+        BookingPhase phase = BookingPhaseScheduler.phaseAt(start, end, LocalDateTime.now());
 
         Booking bookingEntity = new Booking();
         bookingEntity.setItem(item);
@@ -139,10 +277,22 @@ public class BookingService {
         bookingEntity.setStart(start);
         bookingEntity.setEnd(end);
         bookingEntity.setStatus(status);
+        bookingEntity.setPhase(phase);
 
         return bookingEntity;
     }
 
+    private BookingInterval toBookingInterval(Booking booking) {
+        Long bookingId = booking.getId();
+        Long itemId = booking.getItem().getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+
+        BookingInterval bookingInterval = new BookingInterval(bookingId, itemId, start, end);
+
+        return bookingInterval;
+    }
+
     private BookingResponse toBookingResponse(Booking booking) {
         Long id = booking.getId();
         LocalDateTime start = booking.getStart();
@@ -166,6 +316,28 @@ public class BookingService {
         return bookingResponse;
     }
 
+    private BookingResponse toBookingResponse(BookingView booking) {
+        BookingResponse.ItemRes itemResponse = new BookingResponse.ItemRes();
+        itemResponse.setId(booking.getItemId());
+        itemResponse.setName(booking.getItemName());
+        itemResponse.setDescription(booking.getItemDescription());
+
+        User userResponse = new User();
+        userResponse.setId(booking.getBookerId());
+        userResponse.setName(booking.getBookerName());
+        userResponse.setEmail(booking.getBookerEmail());
+
+        BookingResponse bookingResponse = new BookingResponse();
+        bookingResponse.setId(booking.getId());
+        bookingResponse.setStart(booking.getStart());
+        bookingResponse.setEnd(booking.getEnd());
+        bookingResponse.setStatus(booking.getStatus());
+        bookingResponse.setItem(itemResponse);
+        bookingResponse.setBooker(userResponse);
+
+        return bookingResponse;
+    }
+
     private BookingResponse.ItemRes toItemResponse(Item item) {
         Long itemId = item.getId();
         String itemName = item.getName();
@@ -235,6 +407,20 @@ public class BookingService {
         }
     }
 
+    private void checkItemIsFree(Booking booking) throws ResponseStatusException {
+        Long itemId = booking.getItem().getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+
+        boolean isFree = availabilityIndex.isFree(itemId, start, end, booking.getId());
+
+        if (!isFree) {
+            log.info("Предмет по ID: {} уже забронирован на пересекающееся время! Начало: {}, конец: {}", itemId, start, end);
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Предмет по ID: " + itemId + " уже забронирован на пересекающееся время! Начало: " + start + ", конец: " + end);
+        }
+    }
+
     public List<BookingResponse> getListAllBookingsForCurrentUser(Long userId, BookingStateFilter bookingStateFilter, int from, int size) {
         boolean isExistBooker = userService.existsUser(userId);
 
@@ -244,8 +430,13 @@ public class BookingService {
                     "Не найден пользователь пользователь-арендатор по ID: " + userId + ", для возврата списка с фильтром " + bookingStateFilter);
         }
 
+        return bookingListCache.get(userId, BookingListCache.Role.BOOKER, bookingStateFilter, from, size,
+                () -> findBookingsForCurrentUser(userId, bookingStateFilter, from, size));
+    }
+
+    private List<BookingResponse> findBookingsForCurrentUser(Long userId, BookingStateFilter bookingStateFilter, int from, int size) {
         MyPageRequest pageRequest = new MyPageRequest(from, size);
-        Page<Booking> page;
+        Slice<BookingView> page;
 
         switch (bookingStateFilter) {
             case ALL:
@@ -272,9 +463,9 @@ public class BookingService {
                         "Не существует фильтра " + bookingStateFilter + ", пользователь-арендатор по ID: " + userId + " запросил бронирования по фильтру");
         }
 
-        List<Booking> listBookings = page.getContent();
+        List<BookingView> listBookings = page.getContent();
         List<BookingResponse> listBookingResponse = new ArrayList<>();
-        for (Booking booking : listBookings) {
+        for (BookingView booking : listBookings) {
             BookingResponse response = toBookingResponse(booking);
             listBookingResponse.add(response);
         }
@@ -282,6 +473,26 @@ public class BookingService {
         return listBookingResponse;
     }
 
+    public void checkOwnerExists(Long userId) throws ResponseStatusException {
+        boolean isExistOwner = userService.existsUser(userId);
+
+        if (!isExistOwner) {
+            log.info("Не найден пользователь пользователь-хозяин по ID: {}, для выгрузки истории бронирований", userId);
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Не найден пользователь пользователь-хозяин по ID: " + userId + ", для выгрузки истории бронирований");
+        }
+    }
+
+    /**
+     * Передаёт все бронирования вещей хозяина, от новых к старым, по одному. Строки читаются
+     * курсором с фиксированным размером выборки и не попадают в контекст персистентности.
+     */
+    public void exportBookingsForCurrentOwner(Long userId, Consumer<BookingResponse> action) {
+        try (Stream<BookingView> bookings = bookingRepository.streamAllByOwnerId(userId)) {
+            bookings.map(this::toBookingResponse).forEach(action);
+        }
+    }
+
     public List<BookingResponse> getListAllBookingsForCurrentOwner(Long userId, BookingStateFilter bookingStateFilter, int from, int size) {
         boolean isExistOwner = userService.existsUser(userId);
 
@@ -291,8 +502,13 @@ public class BookingService {
                     "Не найден пользователь пользователь-хозяин по ID: " + userId + ", для возврата списка с фильтром " + bookingStateFilter);
         }
 
+        return bookingListCache.get(userId, BookingListCache.Role.OWNER, bookingStateFilter, from, size,
+                () -> findBookingsForCurrentOwner(userId, bookingStateFilter, from, size));
+    }
+
+    private List<BookingResponse> findBookingsForCurrentOwner(Long userId, BookingStateFilter bookingStateFilter, int from, int size) {
         MyPageRequest pageRequest = new MyPageRequest(from, size);
-        Page<Booking> page;
+        Slice<BookingView> page;
 
         switch (bookingStateFilter) {
             case ALL:
@@ -319,9 +535,9 @@ public class BookingService {
                         "Не существует фильтра " + bookingStateFilter + ", хозяина по ID: " + userId + " запросил бронирования по фильтру");
         }
 
-        List<Booking> listBookings = page.getContent();
+        List<BookingView> listBookings = page.getContent();
         List<BookingResponse> listBookingResponse = new ArrayList<>();
-        for (Booking booking : listBookings) {
+        for (BookingView booking : listBookings) {
             BookingResponse response = toBookingResponse(booking);
             listBookingResponse.add(response);
         }
@@ -329,6 +545,116 @@ public class BookingService {
         return listBookingResponse;
     }
 
+    public BookingListSlice getBookingsSliceForCurrentUser(Long userId, BookingStateFilter bookingStateFilter, String cursor, int size) {
+        boolean isExistBooker = userService.existsUser(userId);
+
+        if (!isExistBooker) {
+            log.info("Не найден пользователь пользователь-арендатор по ID: {}, для возврата списка с фильтром {}", userId, bookingStateFilter);
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Не найден пользователь пользователь-арендатор по ID: " + userId + ", для возврата списка с фильтром " + bookingStateFilter);
+        }
+
+        SeekCursor seekCursor = SeekCursor.decode(cursor);
+        LocalDateTime cursorStart = seekCursor.getPosition();
+        Long cursorId = seekCursor.getId();
+        PageRequest pageRequest = PageRequest.of(0, size);
+        Slice<BookingView> slice;
+
+        switch (bookingStateFilter) {
+            case ALL:
+                slice = bookingRepository.findAllByBookerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case CURRENT:
+                slice = bookingRepository.findCurrentByBookerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case PAST:
+                slice = bookingRepository.findPastByBookerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case FUTURE:
+                slice = bookingRepository.findFutureByBookerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case WAITING:
+                slice = bookingRepository.findWaitingByBookerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case REJECTED:
+                slice = bookingRepository.findRejectedByBookerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            default:
+                log.info("Не существует фильтра {}, пользователь-арендатор по ID: {} запросил бронирования по фильтру", bookingStateFilter, userId);
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Не существует фильтра " + bookingStateFilter + ", пользователь-арендатор по ID: " + userId + " запросил бронирования по фильтру");
+        }
+
+        BookingListSlice bookingListSlice = toBookingListSlice(slice);
+
+        return bookingListSlice;
+    }
+
+    public BookingListSlice getBookingsSliceForCurrentOwner(Long userId, BookingStateFilter bookingStateFilter, String cursor, int size) {
+        boolean isExistOwner = userService.existsUser(userId);
+
+        if (!isExistOwner) {
+            log.info("Не найден пользователь пользователь-хозяин по ID: {}, для возврата списка с фильтром {}", userId, bookingStateFilter);
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Не найден пользователь пользователь-хозяин по ID: " + userId + ", для возврата списка с фильтром " + bookingStateFilter);
+        }
+
+        SeekCursor seekCursor = SeekCursor.decode(cursor);
+        LocalDateTime cursorStart = seekCursor.getPosition();
+        Long cursorId = seekCursor.getId();
+        PageRequest pageRequest = PageRequest.of(0, size);
+        Slice<BookingView> slice;
+
+        switch (bookingStateFilter) {
+            case ALL:
+                slice = bookingRepository.findAllByOwnerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case CURRENT:
+                slice = bookingRepository.findCurrentByOwnerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case PAST:
+                slice = bookingRepository.findPastByOwnerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case FUTURE:
+                slice = bookingRepository.findFutureByOwnerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case WAITING:
+                slice = bookingRepository.findWaitingByOwnerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            case REJECTED:
+                slice = bookingRepository.findRejectedByOwnerIdAfterCursor(pageRequest, userId, cursorStart, cursorId);
+                break;
+            default:
+                log.info("Не существует фильтра {}, хозяина по ID: {} запросил бронирования по фильтру", bookingStateFilter, userId);
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Не существует фильтра " + bookingStateFilter + ", хозяина по ID: " + userId + " запросил бронирования по фильтру");
+        }
+
+        BookingListSlice bookingListSlice = toBookingListSlice(slice);
+
+        return bookingListSlice;
+    }
+
+    private BookingListSlice toBookingListSlice(Slice<BookingView> slice) {
+        List<BookingView> listBookings = slice.getContent();
+        List<BookingResponse> listBookingResponse = new ArrayList<>();
+        for (BookingView booking : listBookings) {
+            BookingResponse response = toBookingResponse(booking);
+            listBookingResponse.add(response);
+        }
+
+        String nextCursor = null;
+        if (slice.hasNext() && !listBookings.isEmpty()) {
+            BookingView lastBooking = listBookings.get(listBookings.size() - 1);
+            SeekCursor lastPosition = new SeekCursor(lastBooking.getStart(), lastBooking.getId());
+            nextCursor = lastPosition.encode();
+        }
+
+        BookingListSlice bookingListSlice = new BookingListSlice(listBookingResponse, nextCursor);
+
+        return bookingListSlice;
+    }
+
     public List<Booking> getBookingPastByBookerIdAndItemId(Long bookerId, Long itemId) {
         List<Booking> listBookings = bookingRepository.findPastByBookerIdAndItemId(bookerId, itemId);
 
@@ -1,32 +1,56 @@
 package ru.practicum.shareit.booking.storage;
 
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.dto.BookingPhaseBoundary;
+import ru.practicum.shareit.booking.model.dto.BookingView;
+import ru.practicum.shareit.booking.model.dto.ItemBookingDates;
 import ru.practicum.shareit.util.MyPageRequest;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    Page<Booking> findAllByBookerId(MyPageRequest pageRequest, Long bookerId);
-
-    @Query("SELECT b " +
+    String SELECT_BOOKING_VIEW = "SELECT new ru.practicum.shareit.booking.model.dto.BookingView(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, i.description, u.id, u.name, u.email) " +
             "FROM Booking b " +
-            "WHERE b.start <= CURRENT_TIMESTAMP " +
-            "AND b.end >= CURRENT_TIMESTAMP " +
-            "AND b.status = 'APPROVED'" +
-            "AND b.booker.id = :id")
-    Page<Booking> findCurrentByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
+            "JOIN b.item i " +
+            "JOIN b.booker u ";
 
-    @Query("SELECT b " +
-            "FROM Booking b " +
-            "WHERE b.end < CURRENT_TIMESTAMP " +
+    String SEEK_AFTER_CURSOR = "AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId)) ";
+
+    String SEEK_ORDER = "ORDER BY b.start DESC, b.id DESC";
+
+    // Ведущие столбцы совпадают с индексом bookings_booker_id_phase_start_idx, поэтому сортировка идёт по индексу
+    String SEEK_BOOKER_PHASE_ORDER = "ORDER BY b.booker.id, b.phase, b.start DESC, b.id DESC";
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE u.id = :id")
+    Slice<BookingView> findAllByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'CURRENT' " +
+            "AND b.status = 'APPROVED' " +
+            "AND u.id = :id")
+    Slice<BookingView> findCurrentByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'PAST' " +
             "AND b.status = 'APPROVED' " +
-            "AND b.booker.id = :id")
-    Page<Booking> findPastByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
+            "AND u.id = :id")
+    Slice<BookingView> findPastByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
 
     @Query("SELECT b " +
             "FROM Booking b " +
@@ -36,60 +60,206 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "AND b.item.id = :itemId")
     List<Booking> findPastByBookerIdAndItemId(@Param("id") Long bookerId, @Param("itemId") Long itemId);
 
-    @Query("SELECT b " +
-            "FROM Booking b " +
-            "WHERE b.start > CURRENT_TIMESTAMP " +
-            "AND b.booker.id = :id")
-    Page<Booking> findFutureByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
+    @Query(value = "SELECT EXISTS (" +
+            "SELECT 1 " +
+            "FROM Bookings b " +
+            "WHERE b.booker_id = :bookerId " +
+            "AND b.item_id = :itemId " +
+            "AND b.end_date_time < LOCALTIMESTAMP " +
+            "AND b.status = 'APPROVED')",
+            nativeQuery = true)
+    boolean existsPastApprovedByBookerIdAndItemId(@Param("bookerId") Long bookerId, @Param("itemId") Long itemId);
 
-    @Query("SELECT b " +
-            "FROM Booking b " +
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'FUTURE' " +
+            "AND u.id = :id")
+    Slice<BookingView> findFutureByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
+
+    @Query(SELECT_BOOKING_VIEW +
             "WHERE b.status = 'WAITING'" +
-            "AND b.booker.id = :id")
-    Page<Booking> findWaitingByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
+            "AND u.id = :id")
+    Slice<BookingView> findWaitingByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
 
-    @Query("SELECT b " +
-            "FROM Booking b " +
+    @Query(SELECT_BOOKING_VIEW +
             "WHERE b.status = 'REJECTED'" +
-            "AND b.booker.id = :id")
-    Page<Booking> findRejectedByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
+            "AND u.id = :id")
+    Slice<BookingView> findRejectedByBookerId(MyPageRequest pageRequest, @Param("id") Long bookerId);
 
-    @Query("SELECT b " +
-            "FROM Booking b " +
-            "WHERE b.item.owner.id = :id")
-    Page<Booking> findAllByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE i.owner.id = :id")
+    Slice<BookingView> findAllByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
 
-    @Query("SELECT b " +
-            "FROM Booking b " +
-            "WHERE b.start <= CURRENT_TIMESTAMP " +
-            "AND b.end >= CURRENT_TIMESTAMP " +
-            "AND b.status = 'APPROVED'" +
-            "AND b.item.owner.id = :id")
-    Page<Booking> findCurrentByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'CURRENT' " +
+            "AND b.status = 'APPROVED' " +
+            "AND i.owner.id = :id")
+    Slice<BookingView> findCurrentByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
 
-    @Query("SELECT b " +
-            "FROM Booking b " +
-            "WHERE b.end < CURRENT_TIMESTAMP " +
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'PAST' " +
             "AND b.status = 'APPROVED' " +
-            "AND b.item.owner.id = :id")
-    Page<Booking> findPastByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
+            "AND i.owner.id = :id")
+    Slice<BookingView> findPastByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
 
-    @Query("SELECT b " +
-            "FROM Booking b " +
-            "WHERE b.start > CURRENT_TIMESTAMP " +
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'FUTURE' " +
             "AND b.status = 'APPROVED' " +
-            "AND b.item.owner.id = :id")
-    Page<Booking> findFutureByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
+            "AND i.owner.id = :id")
+    Slice<BookingView> findFutureByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
 
-    @Query("SELECT b " +
-            "FROM Booking b " +
+    @Query(SELECT_BOOKING_VIEW +
             "WHERE b.status = 'WAITING'" +
-            "AND b.item.owner.id = :id")
-    Page<Booking> findWaitingByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
+            "AND i.owner.id = :id")
+    Slice<BookingView> findWaitingByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.status = 'REJECTED'" +
+            "AND i.owner.id = :id")
+    Slice<BookingView> findRejectedByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE u.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_ORDER)
+    Slice<BookingView> findAllByBookerIdAfterCursor(Pageable pageable, @Param("id") Long bookerId,
+                                                @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'CURRENT' " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.booker.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_BOOKER_PHASE_ORDER)
+    Slice<BookingView> findCurrentByBookerIdAfterCursor(Pageable pageable, @Param("id") Long bookerId,
+                                                    @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'PAST' " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.booker.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_BOOKER_PHASE_ORDER)
+    Slice<BookingView> findPastByBookerIdAfterCursor(Pageable pageable, @Param("id") Long bookerId,
+                                                 @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'FUTURE' " +
+            "AND b.booker.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_BOOKER_PHASE_ORDER)
+    Slice<BookingView> findFutureByBookerIdAfterCursor(Pageable pageable, @Param("id") Long bookerId,
+                                                   @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.status = 'WAITING' " +
+            "AND u.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_ORDER)
+    Slice<BookingView> findWaitingByBookerIdAfterCursor(Pageable pageable, @Param("id") Long bookerId,
+                                                    @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.status = 'REJECTED' " +
+            "AND u.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_ORDER)
+    Slice<BookingView> findRejectedByBookerIdAfterCursor(Pageable pageable, @Param("id") Long bookerId,
+                                                     @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE i.owner.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_ORDER)
+    Slice<BookingView> findAllByOwnerIdAfterCursor(Pageable pageable, @Param("id") Long ownerId,
+                                               @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'CURRENT' " +
+            "AND b.status = 'APPROVED' " +
+            "AND i.owner.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_ORDER)
+    Slice<BookingView> findCurrentByOwnerIdAfterCursor(Pageable pageable, @Param("id") Long ownerId,
+                                                   @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'PAST' " +
+            "AND b.status = 'APPROVED' " +
+            "AND i.owner.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_ORDER)
+    Slice<BookingView> findPastByOwnerIdAfterCursor(Pageable pageable, @Param("id") Long ownerId,
+                                                @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.phase = 'FUTURE' " +
+            "AND b.status = 'APPROVED' " +
+            "AND i.owner.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_ORDER)
+    Slice<BookingView> findFutureByOwnerIdAfterCursor(Pageable pageable, @Param("id") Long ownerId,
+                                                  @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.status = 'WAITING' " +
+            "AND i.owner.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_ORDER)
+    Slice<BookingView> findWaitingByOwnerIdAfterCursor(Pageable pageable, @Param("id") Long ownerId,
+                                                   @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE b.status = 'REJECTED' " +
+            "AND i.owner.id = :id " +
+            SEEK_AFTER_CURSOR +
+            SEEK_ORDER)
+    Slice<BookingView> findRejectedByOwnerIdAfterCursor(Pageable pageable, @Param("id") Long ownerId,
+                                                    @Param("cursorStart") LocalDateTime cursorStart, @Param("cursorId") Long cursorId);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query(SELECT_BOOKING_VIEW +
+            "WHERE i.owner.id = :id " +
+            SEEK_ORDER)
+    Stream<BookingView> streamAllByOwnerId(@Param("id") Long ownerId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.model.dto.BookingInterval(b.id, b.item.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.status IN ('APPROVED', 'WAITING') " +
+            "AND b.end > CURRENT_TIMESTAMP")
+    List<BookingInterval> findActiveIntervals();
+
+    @Query("SELECT new ru.practicum.shareit.booking.model.dto.ItemBookingDates(b.item.id, " +
+            "MAX(CASE WHEN b.start <= CURRENT_TIMESTAMP THEN b.start END), " +
+            "MIN(CASE WHEN b.start > CURRENT_TIMESTAMP THEN b.start END)) " +
+            "FROM Booking b " +
+            "WHERE b.status = 'APPROVED' " +
+            "AND b.item.id IN :itemIds " +
+            "GROUP BY b.item.id")
+    List<ItemBookingDates> findLastAndNextBookingDates(@Param("itemIds") Collection<Long> itemIds);
 
     @Query("SELECT b " +
             "FROM Booking b " +
-            "WHERE b.status = 'REJECTED'" +
-            "AND b.item.owner.id = :id")
-    Page<Booking> findRejectedByOwnerId(MyPageRequest pageRequest, @Param("id") Long ownerId);
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH i.owner " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.id IN :ids")
+    List<Booking> findAllWithItemOwnerAndBookerByIdIn(@Param("ids") Collection<Long> bookingIds);
+
+    @Query("SELECT new ru.practicum.shareit.booking.model.dto.BookingPhaseBoundary(" +
+            "b.id, b.booker.id, i.owner.id, b.start, b.end, b.phase) " +
+            "FROM Booking b " +
+            "JOIN b.item i " +
+            "WHERE (b.phase = 'FUTURE' AND b.start <= :until) " +
+            "OR (b.phase = 'CURRENT' AND b.end <= :until)")
+    List<BookingPhaseBoundary> findPhaseBoundariesUntil(@Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE Booking b " +
+            "SET b.phase = :phase " +
+            "WHERE b.id IN :ids " +
+            "AND b.phase <> 'PAST'")
+    int updatePhase(@Param("phase") BookingPhase phase, @Param("ids") Collection<Long> bookingIds);
 }
\ No newline at end of file
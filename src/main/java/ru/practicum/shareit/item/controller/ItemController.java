@@ -2,7 +2,9 @@ package ru.practicum.shareit.item.controller;
 
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.model.dto.CommentListSlice;
 import ru.practicum.shareit.item.model.dto.CommentRequest;
 import ru.practicum.shareit.item.model.dto.CommentResponse;
 import ru.practicum.shareit.item.model.dto.ItemDto;
@@ -19,6 +21,8 @@ import java.util.List;
 @RestController
 @RequestMapping("/items")
 public class ItemController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ItemService itemService;
 
     public ItemController(ItemService itemService) {
@@ -59,4 +63,19 @@ public class ItemController {
     public CommentResponse addComment(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId, @RequestBody CommentRequest commentRequest) {
         return itemService.addComment(userId, itemId, commentRequest);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentResponse>> getComments(@PathVariable Long itemId,
+                                                             @RequestParam(name = "cursor", required = false) String cursor,
+                                                             @RequestParam(name = "size", defaultValue = "10") int size) {
+        CommentListSlice slice = itemService.getComments(itemId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        String nextCursor = slice.getNextCursor();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+
+        return response.body(slice.getComments());
+    }
+}
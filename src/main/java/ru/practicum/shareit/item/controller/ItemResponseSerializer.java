@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import ru.practicum.shareit.item.model.dto.CommentResponse;
+import ru.practicum.shareit.item.model.dto.ItemResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static ru.practicum.shareit.util.JsonFieldWriter.writeDate;
+import static ru.practicum.shareit.util.JsonFieldWriter.writeLong;
+import static ru.practicum.shareit.util.JsonFieldWriter.writeString;
+
+/**
+ * Сериализатор ItemResponse без рефлексии, вместе с вложенными комментариями. Порядок и формат
+ * полей совпадают с BeanSerializer.
+ */
+@JsonComponent
+public class ItemResponseSerializer extends StdSerializer<ItemResponse> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString LAST_BOOKING = new SerializedString("lastBooking");
+    private static final SerializableString NEXT_BOOKING = new SerializedString("nextBooking");
+    private static final SerializableString AVAILABLE = new SerializedString("available");
+    private static final SerializableString REQUEST_ID = new SerializedString("requestId");
+    private static final SerializableString COMMENT_COUNT = new SerializedString("commentCount");
+    private static final SerializableString COMMENTS = new SerializedString("comments");
+    private static final SerializableString TEXT = new SerializedString("text");
+    private static final SerializableString AUTHOR_NAME = new SerializedString("authorName");
+    private static final SerializableString CREATED = new SerializedString("created");
+
+    public ItemResponseSerializer() {
+        super(ItemResponse.class);
+    }
+
+    @Override
+    public void serialize(ItemResponse item, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        JsonSerializer<Object> dateSerializer = provider.findValueSerializer(LocalDateTime.class);
+
+        gen.writeStartObject(item);
+        writeLong(gen, ID, item.getId());
+        writeString(gen, NAME, item.getName());
+        writeString(gen, DESCRIPTION, item.getDescription());
+        writeDate(gen, LAST_BOOKING, item.getLastBooking(), dateSerializer, provider);
+        writeDate(gen, NEXT_BOOKING, item.getNextBooking(), dateSerializer, provider);
+
+        gen.writeFieldName(AVAILABLE);
+        gen.writeBoolean(item.isAvailable());
+
+        writeLong(gen, REQUEST_ID, item.getRequestId());
+
+        gen.writeFieldName(COMMENT_COUNT);
+        gen.writeNumber(item.getCommentCount());
+
+        gen.writeFieldName(COMMENTS);
+        writeComments(gen, item.getComments(), dateSerializer, provider);
+        gen.writeEndObject();
+    }
+
+    private void writeComments(JsonGenerator gen, List<CommentResponse> comments,
+                               JsonSerializer<Object> dateSerializer, SerializerProvider provider) throws IOException {
+        if (comments == null) {
+            gen.writeNull();
+            return;
+        }
+
+        gen.writeStartArray(comments, comments.size());
+        for (CommentResponse comment : comments) {
+            gen.writeStartObject(comment);
+            writeLong(gen, ID, comment.getId());
+            writeString(gen, TEXT, comment.getText());
+            writeString(gen, AUTHOR_NAME, comment.getAuthorName());
+            writeDate(gen, CREATED, comment.getCreated(), dateSerializer, provider);
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+}
@@ -43,6 +43,9 @@ public class Item {
     @NotNull(message = "Не может отсутствовать статус у Вещи")
     private Boolean available;
 
+    @Column(name = "comment_count", insertable = false, updatable = false)
+    private int commentCount;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
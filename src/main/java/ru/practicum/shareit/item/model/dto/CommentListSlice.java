@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentListSlice {
+
+    private List<CommentResponse> comments;
+
+    private String nextCursor;
+}
@@ -22,5 +22,7 @@ public class ItemResponse {
 
     private Long requestId;
 
+    private int commentCount;
+
     private List<CommentResponse> comments;
 }
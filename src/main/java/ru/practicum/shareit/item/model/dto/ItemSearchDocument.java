@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSearchDocument {
+
+    private Long itemId;
+
+    private String name;
+
+    private String description;
+
+    private Boolean available;
+}
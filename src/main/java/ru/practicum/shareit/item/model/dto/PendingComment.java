@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Принятый, но ещё не записанный в базу комментарий. ID выдан заранее генератором сущности Comment.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PendingComment {
+
+    private Long id;
+
+    private Long authorId;
+
+    private Long itemId;
+
+    private String text;
+
+    private LocalDateTime created;
+}
@@ -0,0 +1,272 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemSearchDocument;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Поиск вещей по обратному индексу триграмм в памяти. Совпадения те же, что у запроса
+ * LOWER(name) LIKE '%text%' OR LOWER(description) LIKE '%text%' по доступным вещам:
+ * триграммы только сужают круг кандидатов, каждый кандидат проверяется подстрокой.
+ * Пока индекс не загружен, запросы обслуживает {@link JpqlItemSearchEngine}.
+ * Изменения вещей, сделанные внутри транзакции, попадают в индекс после её коммита.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "index", matchIfMissing = true)
+public class InvertedIndexItemSearchEngine implements ItemSearchEngine, SmartInitializingSingleton {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private static final String TOKEN_SEPARATOR = "[^\\p{L}\\p{N}]+";
+
+    private final ItemRepository itemRepository;
+    private final JpqlItemSearchEngine fallbackEngine;
+
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    @Autowired
+    public InvertedIndexItemSearchEngine(ItemRepository itemRepository, JpqlItemSearchEngine fallbackEngine) {
+        this.itemRepository = itemRepository;
+        this.fallbackEngine = fallbackEngine;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Long lastItemId = 0L;
+            List<ItemSearchDocument> page;
+            do {
+                page = itemRepository.findAvailableSearchDocumentsAfter(lastItemId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (ItemSearchDocument document : page) {
+                    apply(document);
+                    lastItemId = document.getItemId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+
+            ready = true;
+            log.info("Поисковый индекс вещей загружен: {} доступных вещей", documents.size());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось загрузить поисковый индекс вещей, поиск выполняется запросом к базе данных", e);
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        if (!ready) {
+            return fallbackEngine.search(text, from, size);
+        }
+
+        String query = text.toLowerCase(Locale.ROOT);
+        List<ScoredItem> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (Long itemId : findCandidates(query)) {
+                IndexedItem document = documents.get(itemId);
+                int score = document.score(query);
+
+                if (score > 0) {
+                    matches.add(new ScoredItem(itemId, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt(ScoredItem::score).reversed()
+                .thenComparing(ScoredItem::itemId));
+
+        List<Long> pageIds = new ArrayList<>();
+        for (int i = from; i < matches.size() && pageIds.size() < size; i++) {
+            pageIds.add(matches.get(i).itemId());
+        }
+
+        return loadInOrder(pageIds);
+    }
+
+    @Override
+    public void index(Item item) {
+        ItemSearchDocument document = new ItemSearchDocument(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(document);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(document);
+            }
+        });
+    }
+
+    private void apply(ItemSearchDocument item) {
+        Long itemId = item.getItemId();
+
+        lock.writeLock().lock();
+        try {
+            IndexedItem previous = documents.remove(itemId);
+            if (previous != null) {
+                for (String gram : previous.grams()) {
+                    Set<Long> itemIds = postings.get(gram);
+                    itemIds.remove(itemId);
+
+                    if (itemIds.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+
+            if (!Boolean.TRUE.equals(item.getAvailable())) {
+                return;
+            }
+
+            IndexedItem document = new IndexedItem(item.getName().toLowerCase(Locale.ROOT),
+                    item.getDescription().toLowerCase(Locale.ROOT));
+            documents.put(itemId, document);
+
+            for (String gram : document.grams()) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Collection<Long> findCandidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return documents.keySet();
+        }
+
+        List<Set<Long>> queryPostings = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> itemIds = postings.get(gram);
+
+            if (itemIds == null) {
+                return new ArrayList<>();
+            }
+
+            queryPostings.add(itemIds);
+        }
+
+        queryPostings.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> candidates = new HashSet<>(queryPostings.get(0));
+        for (int i = 1; i < queryPostings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(queryPostings.get(i));
+        }
+
+        return candidates;
+    }
+
+    private List<Item> loadInOrder(List<Long> itemIds) {
+        Map<Long, Item> itemsById = new HashMap<>();
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            itemsById.put(item.getId(), item);
+        }
+
+        List<Item> items = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            Item item = itemsById.get(itemId);
+
+            if (item != null) {
+                items.add(item);
+            }
+        }
+
+        return items;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+
+        return grams;
+    }
+
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = new HashSet<>();
+        for (String token : text.split(TOKEN_SEPARATOR)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+
+        return tokens;
+    }
+
+    private record ScoredItem(Long itemId, int score) {
+    }
+
+    /**
+     * Вещь в индексе. Совпадение в названии весит больше, чем в описании,
+     * совпадение целым словом больше, чем частью слова.
+     */
+    private record IndexedItem(String name, String description, Set<String> nameTokens, Set<String> descriptionTokens) {
+
+        IndexedItem(String name, String description) {
+            this(name, description, tokens(name), tokens(description));
+        }
+
+        Set<String> grams() {
+            Set<String> grams = InvertedIndexItemSearchEngine.grams(name);
+            grams.addAll(InvertedIndexItemSearchEngine.grams(description));
+
+            return grams;
+        }
+
+        int score(String query) {
+            int score = 0;
+
+            if (name.contains(query)) {
+                score += 2;
+
+                if (nameTokens.contains(query)) {
+                    score += 2;
+                }
+            }
+
+            if (description.contains(query)) {
+                score += 1;
+
+                if (descriptionTokens.contains(query)) {
+                    score += 1;
+                }
+            }
+
+            return score;
+        }
+    }
+}
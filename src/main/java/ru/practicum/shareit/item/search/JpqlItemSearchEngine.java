@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.util.MyPageRequest;
+
+import java.util.List;
+
+@Component
+public class JpqlItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Autowired
+    public JpqlItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        MyPageRequest pageRequest = new MyPageRequest(from, size);
+        Page<Item> page = itemRepository.findAvailableItemsBySearchText(pageRequest, escapeLikePattern(text));
+
+        return page.getContent();
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+
+    /**
+     * Текст ищется буквально, как в {@link InvertedIndexItemSearchEngine}: символы шаблона LIKE экранируются.
+     */
+    private String escapeLikePattern(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.util.LongHashSet;
+
+/**
+ * Отвечает, завершал ли пользователь одобренное бронирование вещи, то есть может ли он её комментировать.
+ * Проверка — запрос EXISTS по индексу (booker_id, item_id, end_date_time). Положительный ответ
+ * со временем не меняется, поэтому кэшируется: по пользователю хранится множество ID вещей.
+ * Отрицательный не кэшируется — бронирование может завершиться в любой момент.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CommentEligibilityService {
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, LongHashSet> eligibleItemsByUser;
+
+    @Autowired
+    public CommentEligibilityService(BookingRepository bookingRepository, MeterRegistry meterRegistry,
+                                     @Value("${shareit.cache.comment-eligibility.maximum-size:10000}") long maximumSize) {
+        this.bookingRepository = bookingRepository;
+        this.eligibleItemsByUser = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, eligibleItemsByUser, "comment-eligibility");
+    }
+
+    public boolean canComment(Long authorId, Long itemId) {
+        LongHashSet eligibleItems = eligibleItemsByUser.getIfPresent(authorId);
+
+        if (eligibleItems != null) {
+            synchronized (eligibleItems) {
+                if (eligibleItems.contains(itemId)) {
+                    return true;
+                }
+            }
+        }
+
+        boolean hasCompletedBooking = bookingRepository.existsPastApprovedByBookerIdAndItemId(authorId, itemId);
+
+        if (hasCompletedBooking) {
+            LongHashSet items = eligibleItemsByUser.get(authorId, id -> new LongHashSet());
+
+            synchronized (items) {
+                items.add(itemId);
+            }
+        }
+
+        return hasCompletedBooking;
+    }
+}
@@ -0,0 +1,475 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.item.model.dto.PendingComment;
+import ru.practicum.shareit.item.storage.CommentBatchRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Отложенная запись комментариев. Принятый комментарий дописывается в локальный журнал и кладётся
+ * в ограниченную очередь; отдельный поток пишет очередь пачками многострочным INSERT по размеру пачки
+ * или по интервалу сброса. Если очередь заполнена дольше таймаута, запрос получает 503.
+ * Одновременные добавления сбрасываются на диск одним fsync. Журнал разбит на сегменты: заполненный
+ * сегмент закрывается, а когда все его комментарии записаны, удаляется. При старте незаписанные комментарии
+ * из сегментов дописываются в базу пачками. Комментарий появляется в выдаче вещи с задержкой до интервала сброса.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.comments.write-behind.enabled", havingValue = "true")
+public class CommentWriteBehind implements SmartInitializingSingleton {
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final CommentBatchRepository commentBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path journalPath;
+    private final int segmentEntries;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+
+    private final BlockingQueue<JournaledComment> queue;
+    private final Semaphore capacity;
+    private final Object journalLock = new Object();
+    private final Object syncLock = new Object();
+    private final Thread writer;
+
+    private JournalSegment activeSegment;
+    private long nextSegmentNumber = 1;
+    private long writtenSequence;
+    private volatile long syncedSequence;
+    private volatile boolean running = true;
+
+    @Autowired
+    public CommentWriteBehind(CommentBatchRepository commentBatchRepository, PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${shareit.comments.write-behind.journal:comments-journal.ndjson}") Path journalPath,
+                              @Value("${shareit.comments.write-behind.segment-entries:10000}") int segmentEntries,
+                              @Value("${shareit.comments.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${shareit.comments.write-behind.batch-size:200}") int batchSize,
+                              @Value("${shareit.comments.write-behind.flush-interval:PT0.5S}") Duration flushInterval,
+                              @Value("${shareit.comments.write-behind.offer-timeout:PT0.1S}") Duration offerTimeout) {
+        this.commentBatchRepository = commentBatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.journalPath = journalPath.toAbsolutePath();
+        this.segmentEntries = segmentEntries;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.capacity = new Semaphore(queueCapacity);
+        this.writer = new Thread(this::writeLoop, "comment-write-behind");
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!commentBatchRepository.supportsPreassignedIds()) {
+            throw new IllegalStateException("Отложенная запись комментариев требует ID из последовательности: включите профиль sequence-ids");
+        }
+
+        try {
+            recoverJournal();
+            synchronized (journalLock) {
+                activeSegment = openSegment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал комментариев " + journalPath, e);
+        }
+
+        writer.start();
+    }
+
+    /**
+     * Принимает комментарий к записи и выдаёт ему ID. Вызывается внутри пишущей транзакции;
+     * после возврата комментарий уже сохранён в журнале.
+     */
+    public PendingComment enqueue(Long authorId, Long itemId, String text, LocalDateTime created) throws ResponseStatusException {
+        boolean accepted;
+        try {
+            accepted = capacity.tryAcquire(offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+
+        if (!accepted || !running) {
+            if (accepted) {
+                capacity.release();
+            }
+            log.info("Комментарий пользователя по ID: {} к вещи по ID: {} отклонён: очередь записи заполнена", authorId, itemId);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Сервер перегружен, повторите добавление комментария позже");
+        }
+
+        JournaledComment journaled = null;
+        try {
+            PendingComment comment = new PendingComment(commentBatchRepository.nextId(), authorId, itemId, text, created);
+            byte[] line = (objectMapper.writeValueAsString(comment) + "\n").getBytes(StandardCharsets.UTF_8);
+
+            long sequence;
+            synchronized (journalLock) {
+                if (activeSegment.appended >= segmentEntries) {
+                    rotateSegment();
+                }
+
+                write(activeSegment.channel, line);
+                activeSegment.appended++;
+                activeSegment.pending++;
+                journaled = new JournaledComment(comment, activeSegment);
+                sequence = ++writtenSequence;
+            }
+
+            syncJournal(sequence);
+        } catch (IOException e) {
+            forget(journaled);
+            capacity.release();
+            throw new UncheckedIOException("Не удалось записать комментарий в журнал", e);
+        } catch (RuntimeException e) {
+            forget(journaled);
+            capacity.release();
+            throw e;
+        }
+
+        queue.add(journaled);
+
+        return journaled.comment();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join();
+
+        synchronized (journalLock) {
+            if (activeSegment.pending == 0) {
+                deleteSegment(activeSegment);
+            } else {
+                try {
+                    activeSegment.channel.close();
+                } catch (IOException e) {
+                    log.warn("Не удалось закрыть сегмент журнала комментариев {}", activeSegment.path, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Групповой fsync: первый дождавшийся блокировки поток сбрасывает на диск всё, что успели дописать
+     * к этому моменту, остальные видят, что их запись уже сброшена, и выходят без своего fsync.
+     */
+    private void syncJournal(long sequence) throws IOException {
+        if (syncedSequence >= sequence) {
+            return;
+        }
+
+        synchronized (syncLock) {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+
+            FileChannel channel;
+            long target;
+            synchronized (journalLock) {
+                channel = activeSegment.channel;
+                target = writtenSequence;
+            }
+
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Сегмент закрыт ротацией, перед закрытием он уже сброшен на диск
+            }
+            syncedSequence = target;
+        }
+    }
+
+    private void writeLoop() {
+        List<JournaledComment> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                JournaledComment first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+
+                    JournaledComment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                queue.drainTo(batch, batchSize - batch.size());
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<JournaledComment> batch) throws InterruptedException {
+        List<PendingComment> comments = new ArrayList<>(batch.size());
+        for (JournaledComment journaled : batch) {
+            comments.add(journaled.comment());
+        }
+
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> commentBatchRepository.insertAll(comments));
+                break;
+            } catch (DataIntegrityViolationException e) {
+                insertOneByOne(comments);
+                break;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.warn("Не удалось записать пачку из {} комментариев при остановке, они останутся в журнале", batch.size(), e);
+                    return;
+                }
+
+                log.warn("Не удалось записать пачку из {} комментариев, повтор через {}", batch.size(), RETRY_DELAY, e);
+                Thread.sleep(RETRY_DELAY.toMillis());
+            }
+        }
+
+        for (JournaledComment journaled : batch) {
+            forget(journaled);
+        }
+
+        capacity.release(batch.size());
+        log.debug("Записана пачка из {} комментариев", batch.size());
+    }
+
+    /**
+     * Пачка нарушила ограничение, например автор успел удалиться. Строки пишутся по одной,
+     * отвергнутые базой пропускаются, чтобы одна строка не блокировала очередь или восстановление журнала.
+     */
+    private void insertOneByOne(List<PendingComment> batch) {
+        for (PendingComment comment : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> commentBatchRepository.insertAll(List.of(comment)));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Комментарий по ID: {} пользователя по ID: {} к вещи по ID: {} отвергнут базой и не записан",
+                        comment.getId(), comment.getAuthorId(), comment.getItemId(), e);
+            }
+        }
+    }
+
+    /**
+     * Снимает комментарий с учёта в его сегменте. Закрытый сегмент без незаписанных комментариев удаляется.
+     */
+    private void forget(JournaledComment journaled) {
+        if (journaled == null) {
+            return;
+        }
+
+        synchronized (journalLock) {
+            JournalSegment segment = journaled.segment();
+            segment.pending--;
+
+            if (segment.sealed && segment.pending == 0) {
+                deleteSegment(segment);
+            }
+        }
+    }
+
+    private void rotateSegment() throws IOException {
+        JournalSegment previous = activeSegment;
+        previous.channel.force(false);
+        previous.sealed = true;
+
+        activeSegment = openSegment();
+
+        if (previous.pending == 0) {
+            deleteSegment(previous);
+        }
+    }
+
+    private JournalSegment openSegment() throws IOException {
+        Path path = journalPath.resolveSibling(String.format("%s.%06d", journalPath.getFileName(), nextSegmentNumber++));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        return new JournalSegment(path, channel);
+    }
+
+    private void deleteSegment(JournalSegment segment) {
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить сегмент журнала комментариев {}", segment.path, e);
+        }
+    }
+
+    private static void write(FileChannel channel, byte[] line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Сегменты журнала по возрастанию номера; файл без номера остался от прежнего несегментированного журнала.
+     * Номер следующего сегмента продолжает найденные, чтобы не дописать в файл, который ещё не разобран.
+     */
+    private List<Path> findJournalFiles() throws IOException {
+        Map<Long, Path> segments = new TreeMap<>();
+        String prefix = journalPath.getFileName() + ".";
+
+        if (Files.exists(journalPath)) {
+            segments.put(0L, journalPath);
+        }
+
+        try (Stream<Path> files = Files.list(journalPath.getParent())) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                String suffix = name.startsWith(prefix) ? name.substring(prefix.length()) : "";
+
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(suffix), file);
+                }
+            });
+        }
+
+        for (Long number : segments.keySet()) {
+            nextSegmentNumber = Math.max(nextSegmentNumber, number + 1);
+        }
+
+        return new ArrayList<>(segments.values());
+    }
+
+    private void recoverJournal() throws IOException {
+        int recovered = 0;
+
+        for (Path file : findJournalFiles()) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                List<PendingComment> chunk = new ArrayList<>(batchSize);
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+
+                    try {
+                        chunk.add(objectMapper.readValue(line, PendingComment.class));
+                    } catch (IOException e) {
+                        log.warn("Пропущена повреждённая строка журнала комментариев: {}", line);
+                    }
+
+                    if (chunk.size() == batchSize) {
+                        recovered += recoverChunk(chunk);
+                        chunk.clear();
+                    }
+                }
+
+                if (!chunk.isEmpty()) {
+                    recovered += recoverChunk(chunk);
+                }
+            }
+
+            Files.delete(file);
+        }
+
+        if (recovered > 0) {
+            log.info("Из журнала комментариев {} восстановлено {} незаписанных комментариев", journalPath, recovered);
+        }
+    }
+
+    private int recoverChunk(List<PendingComment> chunk) {
+        List<Long> ids = new ArrayList<>(chunk.size());
+        for (PendingComment comment : chunk) {
+            ids.add(comment.getId());
+        }
+
+        Set<Long> existingIds = commentBatchRepository.findExistingIds(ids);
+        List<PendingComment> missing = new ArrayList<>();
+        for (PendingComment comment : chunk) {
+            if (!existingIds.contains(comment.getId())) {
+                missing.add(comment);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> commentBatchRepository.insertAll(missing));
+        } catch (DataIntegrityViolationException e) {
+            insertOneByOne(missing);
+        }
+
+        return missing.size();
+    }
+
+    private record JournaledComment(PendingComment comment, JournalSegment segment) {
+    }
+
+    /**
+     * Файл журнала: сколько строк в него дописано и сколько из них ещё не записано в базу.
+     * Счётчики меняются только под journalLock.
+     */
+    private static final class JournalSegment {
+
+        private final Path path;
+        private final FileChannel channel;
+        private int appended;
+        private int pending;
+        private boolean sealed;
+
+        private JournalSegment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+}
@@ -1,62 +1,109 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.dto.ItemBookingDates;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.CommentListSlice;
 import ru.practicum.shareit.item.model.dto.CommentRequest;
 import ru.practicum.shareit.item.model.dto.CommentResponse;
 import ru.practicum.shareit.item.model.dto.ItemDto;
 import ru.practicum.shareit.item.model.dto.ItemResponse;
+import ru.practicum.shareit.item.model.dto.PendingComment;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.storage.CommentRepository;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.dto.ItemRequestAnsweredEvent;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.util.MyPageRequest;
+import ru.practicum.shareit.util.RequestEntityLoader;
+import ru.practicum.shareit.util.SeekCursor;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 public class ItemService {
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final ItemRequestService itemRequestService;
     private final UserService userService;
+    private final ItemSearchEngine itemSearchEngine;
+    private final RequestEntityLoader entityLoader;
+    private final CommentEligibilityService commentEligibilityService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<CommentWriteBehind> commentWriteBehind;
+    private final int latestComments;
 
     @Autowired
-    public ItemService(ItemRepository itemRepository, CommentRepository commentRepository, BookingRepository bookingRepository, ItemRequestService itemRequestService, UserService userService) {
+    public ItemService(ItemRepository itemRepository, CommentRepository commentRepository, BookingRepository bookingRepository,
+                       ItemRequestService itemRequestService, UserService userService, ItemSearchEngine itemSearchEngine,
+                       RequestEntityLoader entityLoader, CommentEligibilityService commentEligibilityService,
+                       ApplicationEventPublisher eventPublisher, ObjectProvider<CommentWriteBehind> commentWriteBehind,
+                       @Value("${shareit.items.latest-comments:10}") int latestComments) {
         this.itemRepository = itemRepository;
         this.commentRepository = commentRepository;
         this.bookingRepository = bookingRepository;
         this.itemRequestService = itemRequestService;
         this.userService = userService;
+        this.itemSearchEngine = itemSearchEngine;
+        this.entityLoader = entityLoader;
+        this.commentEligibilityService = commentEligibilityService;
+        this.eventPublisher = eventPublisher;
+        this.commentWriteBehind = commentWriteBehind;
+        this.latestComments = latestComments;
     }
 
+    @Transactional
     public ItemResponse add(Long ownerId, ItemDto itemDto) {
         Item newItem = toItem(ownerId, itemDto);
 
         Item save = itemRepository.save(newItem);
+        itemSearchEngine.index(save);
+
+        ItemRequest itemRequest = save.getRequest();
+        if (itemRequest != null) {
+            ItemDto answeredItem = new ItemDto();
+            answeredItem.setId(save.getId());
+            answeredItem.setName(save.getName());
+            answeredItem.setDescription(save.getDescription());
+            answeredItem.setAvailable(save.getAvailable());
+            answeredItem.setRequestId(itemRequest.getId());
+
+            Long requestorId = itemRequest.getRequestor().getId();
+            eventPublisher.publishEvent(new ItemRequestAnsweredEvent(requestorId, answeredItem));
+        }
 
-        ItemResponse response = toItemResponse(save);
+        ItemResponse response = toItemResponse(save, new ArrayList<>());
 
         return response;
     }
 
+    @Transactional
     public ItemResponse updateItem(Long userId, Long itemId, ItemDto itemDto) throws ResponseStatusException {
         Optional<Item> itemOpt = itemRepository.findById(itemId);
 
@@ -90,7 +137,9 @@ public class ItemService {
         }
 
         Item updatedItem = itemRepository.save(existingItem);
-        ItemResponse response = toItemResponse(updatedItem);
+        itemSearchEngine.index(updatedItem);
+        List<ItemResponse> responses = toItemResponseList(List.of(updatedItem), true);
+        ItemResponse response = responses.get(0);
 
         return response;
     }
@@ -104,13 +153,14 @@ public class ItemService {
         }
 
         Item existingItem = itemOpt.get();
-        ItemResponse response = toItemResponse(existingItem);
+        List<ItemResponse> responses = toItemResponseList(List.of(existingItem), true);
+        ItemResponse response = responses.get(0);
 
         return response;
     }
 
     public Item getItemById(Long itemId) throws ResponseStatusException {
-        Optional<Item> itemOpt = itemRepository.findById(itemId);
+        Optional<Item> itemOpt = entityLoader.find(Item.class, itemId, itemRepository::findById);
         if (itemOpt.isEmpty()) {
             log.info("Не найдена вещь по ID:{}", itemId);
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Не найдена вещь по ID:" + itemId);
@@ -131,11 +181,7 @@ public class ItemService {
         Page<Item> page = itemRepository.findAllByOwnerId(pageRequest, userId);
         List<Item> itemsFromUser = page.getContent();
 
-        List<ItemResponse> itemsDtoFromUser = new ArrayList<>();
-        for (Item item : itemsFromUser) {
-            ItemResponse itemResponse = toItemResponse(item);
-            itemsDtoFromUser.add(itemResponse);
-        }
+        List<ItemResponse> itemsDtoFromUser = toItemResponseList(itemsFromUser, true);
 
         return itemsDtoFromUser;
     }
@@ -151,18 +197,14 @@ public class ItemService {
             return new ArrayList<>();
         }
 
-        MyPageRequest pageRequest = new MyPageRequest(from, size);
-        Page<Item> page = itemRepository.findAvailableItemsBySearchText(pageRequest, text);
-        List<Item> suitableItems = page.getContent();
+        List<Item> suitableItems = itemSearchEngine.search(text, from, size);
 
-        List<ItemResponse> suitableItemsDto = new ArrayList<>();
-        for (Item item : suitableItems) {
-            suitableItemsDto.add(toItemResponse(item));
-        }
+        List<ItemResponse> suitableItemsDto = toItemResponseList(suitableItems, false);
 
         return suitableItemsDto;
     }
 
+    @Transactional
     public CommentResponse addComment(Long authorId, Long itemId, CommentRequest commentRequest) throws ResponseStatusException {
 
         boolean checkUserRental = checkUserRentalHistory(authorId, itemId);
@@ -172,24 +214,79 @@ public class ItemService {
                     "Пользователь по ID: " + authorId + " не имеет право добавить комментарий вещи по ID: " + itemId + ", так как не брал и не завершил аренду этого предмета");
         }
 
+        CommentWriteBehind writeBehind = commentWriteBehind.getIfAvailable();
+        if (writeBehind != null) {
+            return enqueueComment(writeBehind, authorId, itemId, commentRequest);
+        }
+
         Comment comment = toComment(authorId, itemId, commentRequest);
         comment.setCreated(LocalDateTime.now());
 
         Comment savedComment = commentRepository.save(comment);
+        itemRepository.incrementCommentCount(itemId);
 
         CommentResponse commentResponse = toCommentResponse(savedComment);
 
         return commentResponse;
     }
 
-    private boolean checkUserRentalHistory(Long authorId, Long itemId) {
-        List<Booking> bookings = bookingRepository.findPastByBookerIdAndItemId(authorId, itemId);
+    /**
+     * Комментарии вещи от новых к старым. Следующая страница запрашивается по курсору из предыдущей.
+     */
+    public CommentListSlice getComments(Long itemId, String cursor, int size) throws ResponseStatusException {
+        boolean isExistsItem = itemRepository.existsById(itemId);
+        if (!isExistsItem) {
+            log.info("Не найдена вещь по ID:{} для возврата её комментариев", itemId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Не найдена вещь по ID:" + itemId + " для возврата её комментариев");
+        }
 
-        if (bookings.isEmpty()) {
-            return false;
-        } else {
-            return true;
+        SeekCursor seekCursor = SeekCursor.decode(cursor);
+        LocalDateTime cursorCreated = seekCursor.getPosition();
+        Long cursorId = seekCursor.getId();
+        PageRequest pageRequest = PageRequest.of(0, size);
+
+        Slice<Comment> slice = commentRepository.findByItemIdAfterCursor(pageRequest, itemId, cursorCreated, cursorId);
+        List<Comment> comments = slice.getContent();
+
+        List<CommentResponse> commentResponses = new ArrayList<>();
+        for (Comment comment : comments) {
+            CommentResponse commentResponse = toCommentResponse(comment);
+            commentResponses.add(commentResponse);
+        }
+
+        String nextCursor = null;
+        if (slice.hasNext() && !comments.isEmpty()) {
+            Comment lastComment = comments.get(comments.size() - 1);
+            SeekCursor lastPosition = new SeekCursor(lastComment.getCreated(), lastComment.getId());
+            nextCursor = lastPosition.encode();
         }
+
+        CommentListSlice commentListSlice = new CommentListSlice(commentResponses, nextCursor);
+
+        return commentListSlice;
+    }
+
+    /**
+     * Право на отзыв уже проверено и подтверждает существование вещи, поэтому вещь не загружается,
+     * а автор берётся из кэша пользователей. Запись в базу выполнит CommentWriteBehind.
+     */
+    private CommentResponse enqueueComment(CommentWriteBehind writeBehind, Long authorId, Long itemId, CommentRequest commentRequest) {
+        User author = userService.getUserById(authorId);
+        String textComment = commentRequest.getText();
+
+        PendingComment pendingComment = writeBehind.enqueue(authorId, itemId, textComment, LocalDateTime.now());
+
+        CommentResponse commentResponse = new CommentResponse();
+        commentResponse.setId(pendingComment.getId());
+        commentResponse.setAuthorName(author.getName());
+        commentResponse.setText(pendingComment.getText());
+        commentResponse.setCreated(pendingComment.getCreated());
+
+        return commentResponse;
+    }
+
+    private boolean checkUserRentalHistory(Long authorId, Long itemId) {
+        return commentEligibilityService.canComment(authorId, itemId);
     }
 
     private void checkValidNewVersionItem(Long userId, Item item) throws ResponseStatusException {
@@ -240,12 +337,89 @@ public class ItemService {
         return newItem;
     }
 
-    private ItemResponse toItemResponse(Item item) {
+    private List<ItemResponse> toItemResponseList(List<Item> items, boolean withBookingDates) {
+        Map<Long, List<Comment>> commentsByItemId = getCommentsByItemId(items);
+        Map<Long, ItemBookingDates> bookingDatesByItemId;
+
+        if (withBookingDates) {
+            bookingDatesByItemId = getBookingDatesByItemId(items);
+        } else {
+            bookingDatesByItemId = new HashMap<>();
+        }
+
+        List<ItemResponse> itemResponses = new ArrayList<>();
+        for (Item item : items) {
+            List<Comment> comments = commentsByItemId.getOrDefault(item.getId(), new ArrayList<>());
+            ItemResponse itemResponse = toItemResponse(item, comments);
+
+            ItemBookingDates bookingDates = bookingDatesByItemId.get(item.getId());
+            if (Objects.nonNull(bookingDates)) {
+                itemResponse.setLastBooking(bookingDates.getLastBooking());
+                itemResponse.setNextBooking(bookingDates.getNextBooking());
+            }
+
+            itemResponses.add(itemResponse);
+        }
+
+        return itemResponses;
+    }
+
+    /**
+     * В ответ о вещи попадают только последние комментарии, полный список отдаёт GET /items/{itemId}/comments.
+     */
+    private Map<Long, List<Comment>> getCommentsByItemId(List<Item> items) {
+        Map<Long, List<Comment>> commentsByItemId = new HashMap<>();
+
+        if (items.isEmpty()) {
+            return commentsByItemId;
+        }
+
+        List<Long> itemIds = toItemIds(items);
+        List<Long> latestCommentIds = commentRepository.findLatestIdsByItemIdIn(itemIds, latestComments);
+
+        if (latestCommentIds.isEmpty()) {
+            return commentsByItemId;
+        }
+
+        List<Comment> comments = commentRepository.findAllWithAuthorByIdIn(latestCommentIds);
+        for (Comment comment : comments) {
+            Long itemId = comment.getItem().getId();
+            commentsByItemId.computeIfAbsent(itemId, id -> new ArrayList<>()).add(comment);
+        }
+
+        return commentsByItemId;
+    }
+
+    private Map<Long, ItemBookingDates> getBookingDatesByItemId(List<Item> items) {
+        Map<Long, ItemBookingDates> bookingDatesByItemId = new HashMap<>();
+
+        if (items.isEmpty()) {
+            return bookingDatesByItemId;
+        }
+
+        List<Long> itemIds = toItemIds(items);
+        List<ItemBookingDates> bookingDates = bookingRepository.findLastAndNextBookingDates(itemIds);
+        for (ItemBookingDates dates : bookingDates) {
+            bookingDatesByItemId.put(dates.getItemId(), dates);
+        }
+
+        return bookingDatesByItemId;
+    }
+
+    private List<Long> toItemIds(List<Item> items) {
+        List<Long> itemIds = new ArrayList<>();
+        for (Item item : items) {
+            itemIds.add(item.getId());
+        }
+
+        return itemIds;
+    }
+
+    private ItemResponse toItemResponse(Item item, List<Comment> comments) {
         Long id = item.getId();
         String name = item.getName();
         String description = item.getDescription();
         boolean available = item.getAvailable();
-        List<Comment> comments = item.getComments();
         ItemRequest request = item.getRequest();
         Long requestId;
 
@@ -268,6 +442,7 @@ public class ItemService {
         response.setDescription(description);
         response.setAvailable(available);
         response.setRequestId(requestId);
+        response.setCommentCount(item.getCommentCount());
         response.setComments(commentResponseList);
 
         return response;
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item.storage;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.dto.PendingComment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Запись комментариев пачкой одним многострочным INSERT. ID комментариев выдаются заранее генератором
+ * сущности Comment, поэтому вставка не зависит от сгенерированных ключей и повтор из журнала
+ * можно отфильтровать по уже записанным ID. Вместе с комментариями увеличивается счётчик comment_count вещей;
+ * вещи обновляются по возрастанию ID, чтобы параллельные пачки не взаимоблокировались.
+ */
+@Repository
+public class CommentBatchRepository {
+
+    private static final String INSERT_COMMENTS = "INSERT INTO Comments (id, author_id, item_id, text, created) VALUES ";
+
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?)";
+
+    private static final String INCREMENT_COMMENT_COUNT = "UPDATE Items SET comment_count = comment_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public CommentBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean supportsPreassignedIds() {
+        return commentIdGenerator() != null;
+    }
+
+    /**
+     * Выдаёт ID для нового комментария. Вызывается внутри пишущей транзакции.
+     */
+    public Long nextId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator idGenerator = commentIdGenerator();
+
+        if (idGenerator == null) {
+            throw new IllegalStateException("ID комментариев генерируются базой при вставке и не могут быть выданы заранее");
+        }
+
+        return (Long) idGenerator.generate(session, null, null, EventType.INSERT);
+    }
+
+    public void insertAll(List<PendingComment> comments) {
+        StringBuilder sql = new StringBuilder(INSERT_COMMENTS);
+        List<Object> parameters = new ArrayList<>(comments.size() * 5);
+
+        for (int i = 0; i < comments.size(); i++) {
+            PendingComment comment = comments.get(i);
+
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+
+            parameters.add(comment.getId());
+            parameters.add(comment.getAuthorId());
+            parameters.add(comment.getItemId());
+            parameters.add(comment.getText());
+            parameters.add(comment.getCreated());
+        }
+
+        jdbcTemplate.update(sql.toString(), parameters.toArray());
+
+        Map<Long, Integer> addedByItemId = new TreeMap<>();
+        for (PendingComment comment : comments) {
+            addedByItemId.merge(comment.getItemId(), 1, Integer::sum);
+        }
+
+        List<Object[]> countUpdates = new ArrayList<>(addedByItemId.size());
+        for (Map.Entry<Long, Integer> added : addedByItemId.entrySet()) {
+            countUpdates.add(new Object[]{added.getValue(), added.getKey()});
+        }
+
+        jdbcTemplate.batchUpdate(INCREMENT_COMMENT_COUNT, countUpdates);
+    }
+
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
+
+        List<Long> existingIds = namedJdbcTemplate.queryForList("SELECT id FROM Comments WHERE id IN (:ids)", parameters, Long.class);
+
+        return new HashSet<>(existingIds);
+    }
+
+    private BeforeExecutionGenerator commentIdGenerator() {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        Generator generator = sessionFactory.getMappingMetamodel().getEntityDescriptor(Comment.class).getGenerator();
+
+        if (generator instanceof BeforeExecutionGenerator idGenerator && !generator.generatedOnExecution()) {
+            return idGenerator;
+        }
+
+        return null;
+    }
+}
@@ -1,7 +1,42 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+
+    /**
+     * ID последних limit комментариев каждой вещи. Окно идёт по индексу (item_id, created, id).
+     */
+    @Query(value = "SELECT ranked.id " +
+            "FROM (SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn " +
+            "      FROM Comments c " +
+            "      WHERE c.item_id IN (:itemIds)) ranked " +
+            "WHERE ranked.rn <= :limit",
+            nativeQuery = true)
+    List<Long> findLatestIdsByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("SELECT c " +
+            "FROM Comment c " +
+            "JOIN FETCH c.author " +
+            "WHERE c.id IN :ids " +
+            "ORDER BY c.created, c.id")
+    List<Comment> findAllWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c " +
+            "FROM Comment c " +
+            "JOIN FETCH c.author " +
+            "WHERE c.item.id = :itemId " +
+            "AND (c.created < :cursorCreated OR (c.created = :cursorCreated AND c.id < :cursorId)) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    Slice<Comment> findByItemIdAfterCursor(Pageable pageable, @Param("itemId") Long itemId,
+                                           @Param("cursorCreated") LocalDateTime cursorCreated, @Param("cursorId") Long cursorId);
 }
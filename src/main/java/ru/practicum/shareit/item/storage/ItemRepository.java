@@ -2,10 +2,16 @@ package ru.practicum.shareit.item.storage;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemSearchDocument;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
@@ -14,7 +20,19 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT i " +
             "FROM Item i " +
             "WHERE i.available = true AND " +
-            "(LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
-            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
+            "(LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) ESCAPE '\\' " +
+            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')) ESCAPE '\\')")
     Page<Item> findAvailableItemsBySearchText(PageRequest pageRequest, @Param("text") String text);
-}
\ No newline at end of file
+
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("SELECT new ru.practicum.shareit.item.model.dto.ItemSearchDocument(i.id, i.name, i.description, i.available) " +
+            "FROM Item i " +
+            "WHERE i.available = true AND i.id > :afterId " +
+            "ORDER BY i.id")
+    List<ItemSearchDocument> findAvailableSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.commentCount = i.commentCount + 1 WHERE i.id = :id")
+    void incrementCommentCount(@Param("id") Long itemId);
+}
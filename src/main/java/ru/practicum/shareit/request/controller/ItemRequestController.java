@@ -2,9 +2,12 @@ package ru.practicum.shareit.request.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestNotifier;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
@@ -18,10 +21,12 @@ import java.util.List;
 public class ItemRequestController {
 
     private final ItemRequestService itemRequestService;
+    private final ItemRequestNotifier itemRequestNotifier;
 
     @Autowired
-    public ItemRequestController(ItemRequestService itemRequestService) {
+    public ItemRequestController(ItemRequestService itemRequestService, ItemRequestNotifier itemRequestNotifier) {
         this.itemRequestService = itemRequestService;
+        this.itemRequestNotifier = itemRequestNotifier;
     }
 
     @PostMapping
@@ -30,8 +35,10 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDto> getByRequestorId(@RequestHeader("X-Sharer-User-Id") Long requestorId) {
-        return itemRequestService.getByRequestor(requestorId);
+    public List<ItemRequestDto> getByRequestorId(@RequestParam(name = "from", defaultValue = "0") int from,
+                                                 @RequestParam(name = "size", defaultValue = "10") int size,
+                                                 @RequestHeader("X-Sharer-User-Id") Long requestorId) {
+        return itemRequestService.getByRequestor(from, size, requestorId);
     }
 
     @GetMapping("/all")
@@ -41,6 +48,11 @@ public class ItemRequestController {
         return itemRequestService.getAll(from, size, requestorId);
     }
 
+    @GetMapping(path = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader("X-Sharer-User-Id") Long requestorId) {
+        return itemRequestNotifier.subscribe(requestorId);
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestDto getById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable("requestId") Long requestId) {
         return itemRequestService.getItemRequestDtoById(requestId, userId);
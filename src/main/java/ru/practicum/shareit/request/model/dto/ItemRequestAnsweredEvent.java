@@ -0,0 +1,19 @@
+package ru.practicum.shareit.request.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+
+/**
+ * Публикуется, когда добавлена вещь в ответ на запрос. Содержит автора запроса и добавленную вещь.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemRequestAnsweredEvent {
+
+    private Long requestorId;
+
+    private ItemDto item;
+}
@@ -0,0 +1,234 @@
+package ru.practicum.shareit.request.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.request.model.dto.ItemRequestAnsweredEvent;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Рассылает авторам запросов по SSE вещи, добавленные в ответ на их запросы. Событие раскладывается
+ * по ограниченным очередям подписчиков без ожидания, отправкой занимается пул потоков, так что медленный
+ * подписчик занимает не больше одного потока. Подписка закрывается, если очередь переполнена или отправка
+ * не уложилась в таймаут: клиент переподключается и перечитывает GET /requests. Эмиттер завершается
+ * только потоком отправки, чтобы не конкурировать с идущей отправкой.
+ */
+@Slf4j
+@Component
+public class ItemRequestNotifier {
+
+    private static final String EVENT_NAME = "item-request-answered";
+
+    private final UserService userService;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final long sendTimeoutMillis;
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribersByRequestorId = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+    private final ScheduledThreadPoolExecutor sendWatchdog;
+
+    @Autowired
+    public ItemRequestNotifier(UserService userService,
+                               @Value("${shareit.requests.subscriptions.timeout:PT30M}") Duration timeout,
+                               @Value("${shareit.requests.subscriptions.buffer-size:16}") int bufferSize,
+                               @Value("${shareit.requests.subscriptions.sender-threads:4}") int senderThreads,
+                               @Value("${shareit.requests.subscriptions.send-timeout:PT5S}") Duration sendTimeout) {
+        this.userService = userService;
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+
+        AtomicInteger senderNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "item-request-notifier-" + senderNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sendWatchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "item-request-notifier-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sendWatchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    public SseEmitter subscribe(Long requestorId) throws ResponseStatusException {
+        boolean isExistsUser = userService.existsUser(requestorId);
+        if (!isExistsUser) {
+            log.info("Не найден пользователь по ID: {} для подписки на ответы на запросы", requestorId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Не найден пользователь по ID: " + requestorId + " для подписки на ответы на запросы");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(requestorId, emitter, new ArrayBlockingQueue<>(bufferSize));
+
+        subscribersByRequestorId.compute(requestorId, (id, subscribers) -> {
+            Set<Subscriber> requestorSubscribers = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            requestorSubscribers.add(subscriber);
+            return requestorSubscribers;
+        });
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemRequestAnswered(ItemRequestAnsweredEvent event) {
+        Set<Subscriber> subscribers = subscribersByRequestorId.get(event.getRequestorId());
+        if (subscribers == null) {
+            return;
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(event.getItem())) {
+                log.info("Очередь уведомлений пользователя по ID: {} переполнена, подписка закрыта", subscriber.requestorId);
+                close(subscriber);
+            }
+
+            scheduleDrain(subscriber);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        sendWatchdog.shutdownNow();
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Отправляет очередь подписчика. Одновременно для подписчика работает не больше одного drain,
+     * поэтому отправки и завершение эмиттера идут последовательно в потоке отправки.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            ItemDto item;
+            while (!subscriber.closed.get() && (item = subscriber.queue.poll()) != null) {
+                send(subscriber, item);
+            }
+
+            if (subscriber.closed.get()) {
+                complete(subscriber);
+            }
+
+            subscriber.draining.set(false);
+        } while (subscriber.hasWork() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void send(Subscriber subscriber, ItemDto item) {
+        subscriber.startSending();
+        Future<?> timeout = sendWatchdog.schedule(() -> expire(subscriber), sendTimeoutMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            subscriber.emitter.send(SseEmitter.event().name(EVENT_NAME).data(item));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Не удалось отправить уведомление пользователю по ID: {}", subscriber.requestorId, e);
+            close(subscriber);
+        } finally {
+            timeout.cancel(false);
+            subscriber.finishSending();
+        }
+    }
+
+    private void expire(Subscriber subscriber) {
+        log.info("Отправка уведомления пользователю по ID: {} не уложилась в {} мс, подписка закрыта",
+                subscriber.requestorId, sendTimeoutMillis);
+        close(subscriber);
+        subscriber.interruptSending();
+    }
+
+    private void complete(Subscriber subscriber) {
+        subscriber.queue.clear();
+
+        if (!subscriber.completed) {
+            subscriber.completed = true;
+            try {
+                subscriber.emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Не удалось закрыть подписку пользователя по ID: {}", subscriber.requestorId, e);
+            }
+        }
+    }
+
+    /**
+     * Помечает подписку закрытой и снимает её с рассылки. Сам эмиттер завершает drain.
+     */
+    private void close(Subscriber subscriber) {
+        subscriber.closed.set(true);
+
+        subscribersByRequestorId.computeIfPresent(subscriber.requestorId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static final class Subscriber {
+
+        private final Long requestorId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ItemDto> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean completed;
+        private Thread sendingThread;
+
+        private Subscriber(Long requestorId, SseEmitter emitter, BlockingQueue<ItemDto> queue) {
+            this.requestorId = requestorId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        private boolean hasWork() {
+            return !completed && (closed.get() || !queue.isEmpty());
+        }
+
+        private synchronized void startSending() {
+            sendingThread = Thread.currentThread();
+        }
+
+        /**
+         * Прерывание от таймаута возможно только пока поток отправляет, поэтому после сброса
+         * флага оно не достанется следующей задаче пула.
+         */
+        private synchronized void finishSending() {
+            sendingThread = null;
+            Thread.interrupted();
+        }
+
+        private synchronized void interruptSending() {
+            if (sendingThread != null) {
+                sendingThread.interrupt();
+            }
+        }
+    }
+}
@@ -2,39 +2,50 @@ package ru.practicum.shareit.request.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.dto.ItemRequestDto;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.util.MyPageRequest;
+import ru.practicum.shareit.util.RequestEntityLoader;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 public class ItemRequestService {
 
     private final UserService userService;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final RequestEntityLoader entityLoader;
 
     @Autowired
-    public ItemRequestService(UserService userService, ItemRequestRepository itemRequestRepository) {
+    public ItemRequestService(UserService userService, ItemRequestRepository itemRequestRepository,
+                              ItemRepository itemRepository, RequestEntityLoader entityLoader) {
         this.userService = userService;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.entityLoader = entityLoader;
     }
 
+    @Transactional
     public ItemRequest create(Long requestorId, ItemRequest itemRequest) {
 
         User requestor = userService.getUserById(requestorId);
@@ -49,7 +60,7 @@ public class ItemRequestService {
     }
 
     public ItemRequest getItemRequestById(Long itemRequestId) throws ResponseStatusException {
-        Optional<ItemRequest> itemRequestOptional = itemRequestRepository.findById(itemRequestId);
+        Optional<ItemRequest> itemRequestOptional = entityLoader.find(ItemRequest.class, itemRequestId, itemRequestRepository::findById);
 
         if (itemRequestOptional.isEmpty()) {
             log.info("По ID:{} запрос на вещь не найден", itemRequestId);
@@ -61,11 +72,12 @@ public class ItemRequestService {
         return itemRequest;
     }
 
-    public List<ItemRequestDto> getByRequestor(Long bookerId) {
-
-        User requestor = userService.getUserById(bookerId);
+    public List<ItemRequestDto> getByRequestor(int from, int size, Long requestorId) {
+        User requestor = userService.getUserById(requestorId);
 
-        List<ItemRequest> userRequests = itemRequestRepository.findByRequestor(requestor);
+        Sort sort = Sort.by(Sort.Direction.DESC, "creationDate");
+        MyPageRequest pageRequest = new MyPageRequest(from, size, sort);
+        List<ItemRequest> userRequests = itemRequestRepository.findByRequestorId(pageRequest, requestor.getId());
         List<ItemRequestDto> userRequestsDto = toItemRequestDtoList(userRequests);
 
         return userRequestsDto;
@@ -76,8 +88,7 @@ public class ItemRequestService {
 
         Sort sort = Sort.by(Sort.Direction.DESC, "creationDate");
         MyPageRequest pageRequest = new MyPageRequest(from, size, sort);
-        Page<ItemRequest> page = itemRequestRepository.findByRequestorNot(pageRequest, requestor);
-        List<ItemRequest> itemRequests = page.getContent();
+        List<ItemRequest> itemRequests = itemRequestRepository.findByRequestorIdNot(pageRequest, requestor.getId());
         List<ItemRequestDto> itemRequestsDto = toItemRequestDtoList(itemRequests);
         return itemRequestsDto;
     }
@@ -96,30 +107,50 @@ public class ItemRequestService {
         }
 
         ItemRequest itemRequest = itemRequestOptional.get();
-        ItemRequestDto itemRequestDto = toItemRequestDto(itemRequest);
+        ItemRequestDto itemRequestDto = toItemRequestDtoList(List.of(itemRequest)).get(0);
         return itemRequestDto;
     }
 
-    private ItemRequestDto toItemRequestDto(ItemRequest itemRequest) {
+    private ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<ItemDto> responseItemsDto) {
         String description = itemRequest.getDescription();
         LocalDateTime creationDate = itemRequest.getCreationDate();
-        List<Item> responseItems = itemRequest.getResponseItems();
 
         ItemRequestDto itemRequestDto = new ItemRequestDto();
         itemRequestDto.setDescription(description);
         itemRequestDto.setCreationDate(creationDate);
-        List<ItemDto> responseItemsDto = toItemsDtoList(responseItems);
         itemRequestDto.setResponseItems(responseItemsDto);
 
         return itemRequestDto;
     }
 
+    /**
+     * Ответы на все запросы страницы загружаются одним запросом по их ID и раскладываются в памяти,
+     * без обращения к ленивой коллекции responseItems каждого запроса.
+     */
     private List<ItemRequestDto> toItemRequestDtoList(List<ItemRequest> itemRequests) {
         List<ItemRequestDto> userRequestsDto = new ArrayList<>();
 
+        if (itemRequests.isEmpty()) {
+            return userRequestsDto;
+        }
+
+        List<Long> requestIds = new ArrayList<>();
         for (ItemRequest itemRequest : itemRequests) {
+            requestIds.add(itemRequest.getId());
+        }
 
-            ItemRequestDto itemRequestDto = toItemRequestDto(itemRequest);
+        List<Item> responseItems = itemRepository.findAllByRequestIdIn(requestIds);
+        Map<Long, List<ItemDto>> responseItemsByRequestId = new HashMap<>();
+
+        for (Item item : responseItems) {
+            ItemDto itemDto = toItemDto(item);
+            responseItemsByRequestId.computeIfAbsent(itemDto.getRequestId(), id -> new ArrayList<>()).add(itemDto);
+        }
+
+        for (ItemRequest itemRequest : itemRequests) {
+            List<ItemDto> responseItemsDto = responseItemsByRequestId.getOrDefault(itemRequest.getId(), new ArrayList<>());
+
+            ItemRequestDto itemRequestDto = toItemRequestDto(itemRequest, responseItemsDto);
 
             userRequestsDto.add(itemRequestDto);
         }
@@ -127,33 +158,27 @@ public class ItemRequestService {
         return userRequestsDto;
     }
 
-    private List<ItemDto> toItemsDtoList(List<Item> items) {
-        List<ItemDto> itemsDto = new ArrayList<>();
-
-        for (Item item : items) {
-            Long id = item.getId();
-            String name = item.getName();
-            String description = item.getDescription();
-            Boolean isAvailable = item.getAvailable();
-            ItemRequest itemRequest = item.getRequest();
-            Long requestId;
-
-            if (Objects.nonNull(itemRequest)) {
-                requestId = itemRequest.getId();
-            } else {
-                requestId = null;
-            }
-
-            ItemDto itemDto = new ItemDto();
-            itemDto.setId(id);
-            itemDto.setName(name);
-            itemDto.setDescription(description);
-            itemDto.setAvailable(isAvailable);
-            itemDto.setRequestId(requestId);
-
-            itemsDto.add(itemDto);
+    private ItemDto toItemDto(Item item) {
+        Long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        Boolean isAvailable = item.getAvailable();
+        ItemRequest itemRequest = item.getRequest();
+        Long requestId;
+
+        if (Objects.nonNull(itemRequest)) {
+            requestId = itemRequest.getId();
+        } else {
+            requestId = null;
         }
 
-        return itemsDto;
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(id);
+        itemDto.setName(name);
+        itemDto.setDescription(description);
+        itemDto.setAvailable(isAvailable);
+        itemDto.setRequestId(requestId);
+
+        return itemDto;
     }
 }
\ No newline at end of file
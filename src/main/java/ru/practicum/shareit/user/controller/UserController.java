@@ -1,10 +1,13 @@
 package ru.practicum.shareit.user.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.model.dto.UserImportResult;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
@@ -13,9 +16,12 @@ import java.util.List;
  * TODO Sprint add-controllers.
  */
 @Slf4j
+@Validated
 @RestController
 @RequestMapping(path = "/users")
 public class UserController {
+    private static final int MAX_IMPORT_SIZE = 10_000;
+
     private final UserService userService;
 
     public UserController(UserService userService) {
@@ -28,6 +34,12 @@ public class UserController {
         return userService.addUser(userDto);
     }
 
+    @PostMapping("/batch")
+    public List<UserImportResult> importUsers(@RequestBody @Size(max = MAX_IMPORT_SIZE) List<UserDto> userDtos) {
+        log.info("Пакетный импорт {} пользователей", userDtos.size());
+        return userService.importUsers(userDtos);
+    }
+
     @PatchMapping("/{userId}")
     public User updateUser(@PathVariable Long userId, @RequestBody @Valid UserDto userDto) {
         log.info("Updating user ID:{}", userId);
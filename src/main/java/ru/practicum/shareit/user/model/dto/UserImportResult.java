@@ -0,0 +1,19 @@
+package ru.practicum.shareit.user.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportResult {
+
+    private String email;
+
+    private int status;
+
+    private String message;
+
+    private UserDto user;
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Кэш пользователей по ID. Хранит и отсутствие пользователя (пустой Optional) с отдельным,
+ * более коротким сроком жизни. Закэшированные сущности отсоединены от контекста персистентности.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<Long, Optional<User>> cache;
+
+    @Autowired
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${shareit.cache.users.maximum-size:10000}") long maximumSize,
+                     @Value("${shareit.cache.users.expire-after-write:10m}") Duration expireAfterWrite,
+                     @Value("${shareit.cache.users.missing-expire-after-write:30s}") Duration missingExpireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceAwareExpiry(expireAfterWrite, missingExpireAfterWrite))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Optional<User> get(Long userId, Function<Long, Optional<User>> loader) {
+        return cache.get(userId, loader);
+    }
+
+    public void put(User user) {
+        cache.put(user.getId(), Optional.of(user));
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Кладёт пользователя в кэш после коммита транзакции, чтобы откат не оставил в кэше
+     * несохранённые изменения. Вне транзакции кладёт сразу.
+     */
+    public void putAfterCommit(User user) {
+        runAfterCommit(() -> put(user));
+    }
+
+    public void invalidateAfterCommit(Long userId) {
+        runAfterCommit(() -> invalidate(userId));
+    }
+
+    private void runAfterCommit(Runnable mutation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            mutation.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                mutation.run();
+            }
+        });
+    }
+
+    private static class PresenceAwareExpiry implements Expiry<Long, Optional<User>> {
+
+        private final long presentNanos;
+        private final long missingNanos;
+
+        PresenceAwareExpiry(Duration present, Duration missing) {
+            this.presentNanos = present.toNanos();
+            this.missingNanos = missing.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Long userId, Optional<User> user, long currentTime) {
+            return user.isPresent() ? presentNanos : missingNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Optional<User> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Optional<User> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
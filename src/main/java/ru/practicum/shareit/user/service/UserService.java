@@ -1,32 +1,63 @@
 package ru.practicum.shareit.user.service;
 
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.model.dto.UserImportResult;
+import ru.practicum.shareit.user.storage.UserBatchRepository;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.RequestEntityLoader;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 public class UserService {
     private final UserRepository userRepository;
-
-    public UserService(UserRepository userStorage) {
+    private final UserCache userCache;
+    private final UserBatchRepository userBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int importBatchSize;
+    private final RequestEntityLoader entityLoader;
+
+    public UserService(UserRepository userStorage, UserCache userCache, UserBatchRepository userBatchRepository,
+                       PlatformTransactionManager transactionManager, Validator validator,
+                       @Value("${shareit.users.import.batch-size:1000}") int importBatchSize,
+                       RequestEntityLoader entityLoader) {
         this.userRepository = userStorage;
+        this.userCache = userCache;
+        this.userBatchRepository = userBatchRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.importBatchSize = importBatchSize;
+        this.entityLoader = entityLoader;
     }
 
+    @Transactional
     public UserDto addUser(UserDto userDto) {
         try {
             User newUser = toUser(userDto);
 
             User save = userRepository.save(newUser);
+            userCache.putAfterCommit(save);
 
             UserDto savedUserDto = toUserDto(save);
             return savedUserDto;
@@ -38,6 +69,55 @@ public class UserService {
         }
     }
 
+    /**
+     * Импорт пользователей пачками. Каждая пачка вставляется в своей транзакции; если в пачке всё же
+     * случился конфликт email (параллельная вставка), она повторяется построчно.
+     * Результаты возвращаются в порядке входного списка.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<UserImportResult> importUsers(List<UserDto> userDtos) {
+        UserImportResult[] results = new UserImportResult[userDtos.size()];
+        Map<String, Integer> validRowsByEmail = new LinkedHashMap<>();
+
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            String email = userDto.getEmail();
+
+            if (!StringUtils.hasText(userDto.getName()) || !StringUtils.hasText(email) || !validator.validate(userDto).isEmpty()) {
+                results[i] = new UserImportResult(email, HttpStatus.BAD_REQUEST.value(),
+                        "У пользователя должны быть имя и email верного формата", null);
+                continue;
+            }
+
+            if (validRowsByEmail.containsKey(email)) {
+                results[i] = toConflictResult(email);
+                continue;
+            }
+
+            validRowsByEmail.put(email, i);
+        }
+
+        List<String> emails = new ArrayList<>(validRowsByEmail.keySet());
+        for (int from = 0; from < emails.size(); from += importBatchSize) {
+            List<String> emailsChunk = emails.subList(from, Math.min(emails.size(), from + importBatchSize));
+
+            for (String existingEmail : userRepository.findExistingEmails(emailsChunk)) {
+                Integer row = validRowsByEmail.remove(existingEmail);
+                results[row] = toConflictResult(existingEmail);
+            }
+        }
+
+        List<Integer> rows = new ArrayList<>(validRowsByEmail.values());
+        for (int from = 0; from < rows.size(); from += importBatchSize) {
+            List<Integer> rowsChunk = rows.subList(from, Math.min(rows.size(), from + importBatchSize));
+            importChunk(userDtos, rowsChunk, results);
+        }
+
+        log.info("Импорт пользователей: получено {}, добавлено {}", userDtos.size(), rows.size());
+        return Arrays.asList(results);
+    }
+
+    @Transactional
     public User updateUser(Long userId, UserDto userDto) throws ResponseStatusException {
         Optional<User> userOpt = userRepository.findById(userId);
 
@@ -70,7 +150,8 @@ public class UserService {
         }
 
         try {
-            User updatedUser = userRepository.save(existingUser);
+            User updatedUser = userRepository.saveAndFlush(existingUser);
+            userCache.putAfterCommit(updatedUser);
             return updatedUser;
 
         } catch (DataIntegrityViolationException e) { // Может выбросить исключение из-за того новая почта уже есть в бд
@@ -79,6 +160,7 @@ public class UserService {
         }
     }
 
+    @Transactional
     public User removeUser(Long userId) throws ResponseStatusException {
 
         Optional<User> userOpt = userRepository.findById(userId);
@@ -89,6 +171,7 @@ public class UserService {
         }
 
         userRepository.deleteById(userId);
+        userCache.invalidateAfterCommit(userId);
 
         User remoteUser = userOpt.get();
         return remoteUser;
@@ -96,7 +179,7 @@ public class UserService {
 
     public User getUserById(Long userId) throws ResponseStatusException {
 
-        Optional<User> userOpt = userRepository.findById(userId);
+        Optional<User> userOpt = findUser(userId);
 
         if (userOpt.isEmpty()) {
             log.info("Не найден пользователь для возвращения с ID: {}", userId);
@@ -112,7 +195,54 @@ public class UserService {
     }
 
     public boolean existsUser(Long userId) {
-        return userRepository.existsById(userId);
+        Optional<User> userOpt = findUser(userId);
+        return userOpt.isPresent();
+    }
+
+    private void importChunk(List<UserDto> userDtos, List<Integer> rows, UserImportResult[] results) {
+        List<User> users = new ArrayList<>();
+        for (Integer row : rows) {
+            users.add(toUser(userDtos.get(row)));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userBatchRepository.insertAll(users));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Пачка из {} пользователей не вставилась из-за занятого email, вставка построчно", users.size());
+
+            for (Integer row : rows) {
+                results[row] = importOne(userDtos.get(row));
+            }
+            return;
+        }
+
+        for (int i = 0; i < rows.size(); i++) {
+            User user = users.get(i);
+            userCache.invalidate(user.getId());
+            results[rows.get(i)] = new UserImportResult(user.getEmail(), HttpStatus.CREATED.value(), null, toUserDto(user));
+        }
+    }
+
+    private UserImportResult importOne(UserDto userDto) {
+        User user = toUser(userDto);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userBatchRepository.insertAll(List.of(user)));
+        } catch (DataIntegrityViolationException e) {
+            return toConflictResult(user.getEmail());
+        }
+
+        userCache.invalidate(user.getId());
+        return new UserImportResult(user.getEmail(), HttpStatus.CREATED.value(), null, toUserDto(user));
+    }
+
+    private UserImportResult toConflictResult(String email) {
+        log.info("Электронная почта уже занята email: {}", email);
+        return new UserImportResult(email, HttpStatus.CONFLICT.value(), "Электронная почта уже занята email: " + email, null);
+    }
+
+    private Optional<User> findUser(Long userId) {
+        return entityLoader.find(User.class, userId, id -> userCache.get(id, userRepository::findById));
     }
 
     private User toUser(UserDto userDto) {
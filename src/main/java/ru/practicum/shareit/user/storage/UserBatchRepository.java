@@ -0,0 +1,102 @@
+package ru.practicum.shareit.user.storage;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетная вставка пользователей через JDBC. При ключе IDENTITY Hibernate вставляет сущности
+ * по одной; здесь вся пачка уходит одним batch, а ID забираются из сгенерированных ключей.
+ * В профиле sequence-ids ID заранее берутся у генератора сущности, из того же пула, что и у Hibernate.
+ * Вызывается внутри транзакции.
+ */
+@Repository
+public class UserBatchRepository {
+
+    private static final String INSERT_USER = "INSERT INTO Users (name, email) VALUES (?, ?)";
+
+    private static final String INSERT_USER_WITH_ID = "INSERT INTO Users (id, name, email) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public UserBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<User> users) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        Generator generator = session.getFactory().getMappingMetamodel().getEntityDescriptor(User.class).getGenerator();
+
+        if (generator instanceof BeforeExecutionGenerator idGenerator && !generator.generatedOnExecution()) {
+            for (User user : users) {
+                user.setId((Long) idGenerator.generate(session, user, null, EventType.INSERT));
+            }
+
+            insertWithIds(users);
+            return;
+        }
+
+        insertWithGeneratedKeys(users);
+    }
+
+    private void insertWithIds(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_USER_WITH_ID, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                User user = users.get(i);
+                statement.setLong(1, user.getId());
+                statement.setString(2, user.getName());
+                statement.setString(3, user.getEmail());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return users.size();
+            }
+        });
+    }
+
+    private void insertWithGeneratedKeys(List<User> users) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_USER, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        User user = users.get(i);
+                        statement.setString(1, user.getName());
+                        statement.setString(2, user.getEmail());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            users.get(i).setId(id.longValue());
+        }
+    }
+}
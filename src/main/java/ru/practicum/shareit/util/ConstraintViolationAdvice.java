@@ -0,0 +1,25 @@
+package ru.practicum.shareit.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+
+/**
+ * Нарушения ограничений на параметрах методов контроллеров, помеченных {@code @Validated},
+ * отдаются клиенту как 400 с тем же телом ошибки, что и у {@code ResponseStatusException}.
+ */
+@Slf4j
+@RestControllerAdvice
+public class ConstraintViolationAdvice {
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public void handleConstraintViolation(ConstraintViolationException e, HttpServletResponse response) throws IOException {
+        log.info("Запрос отклонён проверкой параметров: {}", e.getMessage());
+        response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+    }
+}
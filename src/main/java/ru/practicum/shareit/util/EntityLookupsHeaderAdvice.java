@@ -0,0 +1,41 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Отладочный заголовок: сколько поисков сущностей по ID в запросе обслужил {@link RequestEntityLoader}
+ * без обращения к репозиторию.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "shareit.web.debug-headers", havingValue = "true")
+public class EntityLookupsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String COALESCED_LOOKUPS_HEADER = "X-Entity-Lookups-Coalesced";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (attributes != null) {
+            response.getHeaders().set(COALESCED_LOOKUPS_HEADER, String.valueOf(RequestEntityLoader.coalescedLookups(attributes)));
+        }
+
+        return body;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.util;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * При старте в профиле sequence-ids проверяет, что следующий блок каждой последовательности
+ * начинается после max(id) таблицы. Строки могли появиться после миграции V4, пока приложение
+ * работало на IDENTITY; тогда последовательность переставляется вперёд.
+ */
+@Slf4j
+@Component
+@Profile("sequence-ids")
+public class IdSequenceAligner implements SmartInitializingSingleton {
+
+    private static final Map<String, String> SEQUENCES_BY_TABLE = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES_BY_TABLE.put("Users", "users_seq");
+        SEQUENCES_BY_TABLE.put("Item_Request", "item_request_seq");
+        SEQUENCES_BY_TABLE.put("Items", "items_seq");
+        SEQUENCES_BY_TABLE.put("Bookings", "bookings_seq");
+        SEQUENCES_BY_TABLE.put("Comments", "comments_seq");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+    private final long allocationSize;
+
+    @Autowired
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                             @Value("${shareit.ids.allocation-size:50}") long allocationSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.allocationSize = allocationSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Map.Entry<String, String> entry : SEQUENCES_BY_TABLE.entrySet()) {
+            String table = entry.getKey();
+            String sequence = entry.getValue();
+
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            Long nextValue = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+
+            if (nextValue - allocationSize + 1 <= maxId) {
+                long restartWith = maxId + allocationSize;
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+                log.warn("Последовательность {} отставала от таблицы {} (max id {}), перезапущена с {}", sequence, table, maxId, restartWith);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Запись полей ответа в JsonGenerator для сериализаторов, написанных вручную. Имена полей
+ * передаются заранее закодированными; даты пишутся сериализатором, настроенным в ObjectMapper,
+ * поэтому формат совпадает с обычной сериализацией.
+ */
+public final class JsonFieldWriter {
+
+    private JsonFieldWriter() {
+    }
+
+    public static void writeLong(JsonGenerator gen, SerializableString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    public static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeString(value);
+    }
+
+    public static void writeDate(JsonGenerator gen, SerializableString name, LocalDateTime value,
+                                 JsonSerializer<Object> dateSerializer, SerializerProvider provider) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            dateSerializer.serialize(value, gen, provider);
+        }
+    }
+}
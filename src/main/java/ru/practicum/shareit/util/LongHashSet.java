@@ -0,0 +1,92 @@
+package ru.practicum.shareit.util;
+
+import java.util.Arrays;
+
+/**
+ * Множество положительных long без упаковки в Long: открытая адресация с линейным пробированием,
+ * 0 обозначает пустую ячейку. Удаление не поддерживается. Не потокобезопасно.
+ */
+public class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private static final long EMPTY = 0L;
+
+    private long[] slots;
+    private int size;
+
+    public LongHashSet() {
+        this.slots = new long[DEFAULT_CAPACITY];
+    }
+
+    public boolean contains(long value) {
+        int mask = slots.length - 1;
+
+        for (int i = index(value, mask); slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean add(long value) {
+        if (value <= EMPTY) {
+            throw new IllegalArgumentException("В множестве хранятся только положительные значения: " + value);
+        }
+
+        if ((size + 1) * 4 > slots.length * 3) {
+            resize();
+        }
+
+        if (!insert(slots, value)) {
+            return false;
+        }
+
+        size++;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] resized = new long[slots.length * 2];
+
+        for (long value : slots) {
+            if (value != EMPTY) {
+                insert(resized, value);
+            }
+        }
+
+        slots = resized;
+    }
+
+    private static boolean insert(long[] table, long value) {
+        int mask = table.length - 1;
+        int i = index(value, mask);
+
+        while (table[i] != EMPTY) {
+            if (table[i] == value) {
+                return false;
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        table[i] = value;
+        return true;
+    }
+
+    private static int index(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    @Override
+    public String toString() {
+        return "LongHashSet" + Arrays.toString(Arrays.stream(slots).filter(value -> value != EMPTY).sorted().toArray());
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает число одновременно обрабатываемых запросов в режиме виртуальных потоков.
+ * Пул Tomcat перестаёт быть естественным ограничителем, и без этого фильтра тысячи
+ * виртуальных потоков выстраиваются в очередь за соединениями Hikari до таймаута.
+ * Разрешений столько, сколько соединений в пуле Hikari, плюс небольшой запас на запросы,
+ * которые держат соединение недолго или не берут его вовсе.
+ * Запрос, не дождавшийся разрешения за короткий таймаут, получает 503.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class RequestAdmissionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long admissionTimeoutNanos;
+
+    @Autowired
+    public RequestAdmissionFilter(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                                  @Value("${shareit.web.admission-margin:4}") int admissionMargin,
+                                  @Value("${shareit.web.admission-timeout:200ms}") Duration admissionTimeout) {
+        int maxConcurrentRequests = connectionPoolSize + admissionMargin;
+
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.admissionTimeoutNanos = admissionTimeout.toNanos();
+        log.info("Одновременно обрабатывается не больше {} запросов: {} соединений в пуле и запас {}",
+                maxConcurrentRequests, connectionPoolSize, admissionMargin);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(admissionTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+
+        if (!admitted) {
+            log.info("Запрос {} {} отклонён: превышено число одновременно обрабатываемых запросов", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Сервер перегружен, повторите запрос позже");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Карта идентичности сущностей на время транзакции HTTP-запроса: повторный поиск той же сущности по ID
+ * возвращает уже загруженный результат, не обращаясь к репозиторию или кэшу. Карта очищается
+ * при завершении транзакции, чтобы не отдавать отсоединённые сущности в следующую транзакцию.
+ * Вне HTTP-запроса (планировщик, бенчмарки) или вне транзакции поиск идёт напрямую.
+ * Отсутствие сущности не запоминается: её могут создать позже в том же запросе.
+ */
+@Component
+public class RequestEntityLoader {
+
+    private static final String LOOKUPS_ATTRIBUTE = RequestEntityLoader.class.getName() + ".lookups";
+
+    private static final String COALESCED_ATTRIBUTE = RequestEntityLoader.class.getName() + ".coalesced";
+
+    private static final String LOOKUPS_TOKEN_ATTRIBUTE = RequestEntityLoader.class.getName() + ".lookupsToken";
+
+    public static int coalescedLookups(RequestAttributes attributes) {
+        AtomicInteger coalesced = (AtomicInteger) attributes.getAttribute(COALESCED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+        return coalesced == null ? 0 : coalesced.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> find(Class<T> type, Long id, Function<Long, Optional<T>> loader) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (attributes == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return loader.apply(id);
+        }
+
+        Map<EntityKey, Optional<?>> lookups = lookups(attributes);
+        EntityKey key = new EntityKey(type, id);
+
+        Optional<?> found = lookups.get(key);
+        if (found != null) {
+            coalesced(attributes).incrementAndGet();
+            return (Optional<T>) found;
+        }
+
+        Optional<T> loaded = loader.apply(id);
+        if (loaded.isPresent()) {
+            lookups.put(key, loaded);
+        }
+
+        return loaded;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<EntityKey, Optional<?>> lookups(RequestAttributes attributes) {
+        Map<EntityKey, Optional<?>> lookups =
+                (Map<EntityKey, Optional<?>>) attributes.getAttribute(LOOKUPS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+        if (lookups == null) {
+            lookups = new HashMap<>();
+            attributes.setAttribute(LOOKUPS_ATTRIBUTE, lookups, RequestAttributes.SCOPE_REQUEST);
+            attributes.setAttribute(LOOKUPS_TOKEN_ATTRIBUTE, new Object(), RequestAttributes.SCOPE_REQUEST);
+        }
+
+        Object token = attributes.getAttribute(LOOKUPS_TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        clearOnTransactionCompletion(token, lookups);
+
+        return lookups;
+    }
+
+    /**
+     * Регистрирует очистку карты один раз на транзакцию. Ресурс привязан к отдельному токену:
+     * хэш самой карты меняется с каждой записью, и по нему привязку нельзя ни найти, ни снять.
+     */
+    private void clearOnTransactionCompletion(Object token, Map<EntityKey, Optional<?>> lookups) {
+        if (TransactionSynchronizationManager.hasResource(token)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(token, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lookups.clear();
+                TransactionSynchronizationManager.unbindResourceIfPossible(token);
+            }
+        });
+    }
+
+    private AtomicInteger coalesced(RequestAttributes attributes) {
+        AtomicInteger coalesced = (AtomicInteger) attributes.getAttribute(COALESCED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+        if (coalesced == null) {
+            coalesced = new AtomicInteger();
+            attributes.setAttribute(COALESCED_ATTRIBUTE, coalesced, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return coalesced;
+    }
+
+    private record EntityKey(Class<?> type, Long id) {
+    }
+}
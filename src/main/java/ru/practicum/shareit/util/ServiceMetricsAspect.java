@@ -0,0 +1,112 @@
+package ru.practicum.shareit.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.service.BookingStateFilter;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+/**
+ * Таймеры вокруг публичных методов сервисов и запросов BookingRepository и ItemRepository.
+ * Теги: класс, метод, исход (ошибка — имя исключения), фильтр бронирований и размер страницы,
+ * если они есть среди аргументов. Размер страницы округляется вверх до корзины,
+ * чтобы клиентский параметр size не раздувал число временных рядов.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    private static final String NONE = "none";
+
+    private static final int[] PAGE_SIZE_BUCKETS = {10, 20, 50, 100};
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * ru.practicum.shareit.booking.service.BookingService.*(..)) " +
+            "|| execution(public * ru.practicum.shareit.item.service.ItemService.*(..)) " +
+            "|| execution(public * ru.practicum.shareit.request.service.ItemRequestService.*(..)) " +
+            "|| execution(public * ru.practicum.shareit.user.service.UserService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("shareit.service", joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    @Around("this(ru.practicum.shareit.booking.storage.BookingRepository) " +
+            "|| this(ru.practicum.shareit.item.storage.ItemRepository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getThis() instanceof BookingRepository
+                ? BookingRepository.class.getSimpleName()
+                : ItemRepository.class.getSimpleName();
+
+        return time("shareit.repository", repository, joinPoint);
+    }
+
+    private Object time(String metricName, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Tags tags = Tags.of(
+                "class", className,
+                "method", signature.getName(),
+                "filter", filterTag(joinPoint.getArgs()),
+                "size", pageSizeTag(signature.getParameterNames(), joinPoint.getArgs()));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(metricName)
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private String filterTag(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof BookingStateFilter filter) {
+                return filter.name();
+            }
+        }
+
+        return NONE;
+    }
+
+    private String pageSizeTag(String[] parameterNames, Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Pageable pageable && pageable.isPaged()) {
+                return pageSizeBucket(pageable.getPageSize());
+            }
+
+            if (parameterNames != null && "size".equals(parameterNames[i]) && args[i] instanceof Integer size) {
+                return pageSizeBucket(size);
+            }
+        }
+
+        return NONE;
+    }
+
+    private String pageSizeBucket(int size) {
+        for (int bucket : PAGE_SIZE_BUCKETS) {
+            if (size <= bucket) {
+                return "le" + bucket;
+            }
+        }
+
+        return "gt" + PAGE_SIZE_BUCKETS[PAGE_SIZE_BUCKETS.length - 1];
+    }
+}
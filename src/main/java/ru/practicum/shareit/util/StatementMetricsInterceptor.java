@@ -0,0 +1,49 @@
+package ru.practicum.shareit.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Записывает, сколько SQL-операторов выполнил Hibernate за обработку запроса, в распределение
+ * shareit.http.statements с тегами метода и шаблона URI. В срезах тестов без реестра метрик ничего не пишет.
+ */
+@Component
+public class StatementMetricsInterceptor implements HandlerInterceptor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    public StatementMetricsInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCountingInspector.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+
+        Object uriPattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+        DistributionSummary.builder("shareit.http.statements")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uriPattern == null ? "UNKNOWN" : uriPattern.toString())
+                .register(registry)
+                .record(StatementCountingInspector.count());
+    }
+}
@@ -0,0 +1,9 @@
+ALTER SEQUENCE users_seq INCREMENT BY ${id_allocation_size};
+
+ALTER SEQUENCE item_request_seq INCREMENT BY ${id_allocation_size};
+
+ALTER SEQUENCE items_seq INCREMENT BY ${id_allocation_size};
+
+ALTER SEQUENCE bookings_seq INCREMENT BY ${id_allocation_size};
+
+ALTER SEQUENCE comments_seq INCREMENT BY ${id_allocation_size};
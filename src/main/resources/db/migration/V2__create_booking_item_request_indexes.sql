@@ -0,0 +1,7 @@
+CREATE INDEX IF NOT EXISTS bookings_booker_id_start_idx ON Bookings (booker_id, start_date_time);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_status_end_idx ON Bookings (item_id, status, end_date_time);
+
+CREATE INDEX IF NOT EXISTS items_owner_id_idx ON Items (owner_id);
+
+CREATE INDEX IF NOT EXISTS item_request_requestor_id_creation_date_idx ON Item_Request (requestor_id, creation_date);
@@ -0,0 +1,18 @@
+ALTER TABLE Bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(16);
+
+UPDATE Bookings
+SET phase = CASE
+                WHEN end_date_time < LOCALTIMESTAMP THEN 'PAST'
+                WHEN start_date_time <= LOCALTIMESTAMP THEN 'CURRENT'
+                ELSE 'FUTURE'
+            END;
+
+ALTER TABLE Bookings ALTER COLUMN phase SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS bookings_booker_id_phase_start_idx ON Bookings (booker_id, phase, start_date_time);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_phase_start_idx ON Bookings (item_id, phase, start_date_time);
+
+CREATE INDEX IF NOT EXISTS bookings_phase_start_idx ON Bookings (phase, start_date_time);
+
+CREATE INDEX IF NOT EXISTS bookings_phase_end_idx ON Bookings (phase, end_date_time);
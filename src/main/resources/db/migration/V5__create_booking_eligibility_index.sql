@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS bookings_booker_id_item_id_end_idx ON Bookings (booker_id, item_id, end_date_time);
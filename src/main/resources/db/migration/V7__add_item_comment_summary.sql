@@ -0,0 +1,6 @@
+ALTER TABLE Items ADD COLUMN IF NOT EXISTS comment_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE Items
+SET comment_count = (SELECT COUNT(*) FROM Comments c WHERE c.item_id = Items.id);
+
+CREATE INDEX IF NOT EXISTS comments_item_id_created_idx ON Comments (item_id, created, id);
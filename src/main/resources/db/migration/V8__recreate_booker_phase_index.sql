@@ -0,0 +1,3 @@
+DROP INDEX IF EXISTS bookings_booker_id_phase_start_idx;
+
+CREATE INDEX IF NOT EXISTS bookings_booker_id_phase_start_idx ON Bookings (booker_id, phase, start_date_time DESC, id DESC);
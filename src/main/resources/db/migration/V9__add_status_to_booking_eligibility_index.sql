@@ -0,0 +1,3 @@
+DROP INDEX IF EXISTS bookings_booker_id_item_id_end_idx;
+
+CREATE INDEX IF NOT EXISTS bookings_booker_id_item_id_status_end_idx ON Bookings (booker_id, item_id, status, end_date_time);
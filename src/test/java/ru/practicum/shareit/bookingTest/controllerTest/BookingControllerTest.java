@@ -1,20 +1,90 @@
 package ru.practicum.shareit.bookingTest.controllerTest;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.model.dto.BookingResponse;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
 @WebMvcTest(BookingController.class)
 @AutoConfigureMockMvc
 public class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @Autowired
+    private MockMvc mockMvc;
+
     @Test
     public void test() {
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void exportWritesOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookingResponse> action = invocation.getArgument(1);
+            action.accept(bookingResponse(1L));
+            action.accept(bookingResponse(2L));
+            return null;
+        }).when(bookingService).exportBookingsForCurrentOwner(eq(7L), any());
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export").header("X-Sharer-User-Id", 7L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1"));
+        assertTrue(lines[1].startsWith("{\"id\":2"));
+    }
+
+    @Test
+    public void oversizedStatusBatchIsRejected() throws Exception {
+        String body = "[" + String.join(",", Collections.nCopies(101, "{\"bookingId\":1,\"approved\":true}")) + "]";
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 7L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
+
+    private BookingResponse bookingResponse(Long id) {
+        BookingResponse bookingResponse = new BookingResponse();
+        bookingResponse.setId(id);
+
+        return bookingResponse;
+    }
+}
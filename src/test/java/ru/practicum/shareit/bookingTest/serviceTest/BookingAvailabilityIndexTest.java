@@ -0,0 +1,98 @@
+package ru.practicum.shareit.bookingTest.serviceTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.dto.FreeSlotResponse;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BookingAvailabilityIndexTest {
+
+    private static final Long ITEM_ID = 1L;
+
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+    private BookingAvailabilityIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findActiveIntervals()).thenReturn(List.of(
+                new BookingInterval(1L, ITEM_ID, base, base.plusHours(10)),
+                new BookingInterval(2L, ITEM_ID, base.plusHours(2), base.plusHours(3))));
+
+        index = new BookingAvailabilityIndex(bookingRepository);
+        index.afterSingletonsInstantiated();
+    }
+
+    @Test
+    public void overlapIsFoundBehindShorterBooking() {
+        assertFalse(index.isFree(ITEM_ID, base.plusHours(5), base.plusHours(6)));
+    }
+
+    @Test
+    public void adjacentIntervalIsFree() {
+        assertTrue(index.isFree(ITEM_ID, base.plusHours(10), base.plusHours(12)));
+        assertTrue(index.isFree(ITEM_ID, base.minusHours(2), base));
+    }
+
+    @Test
+    public void removedBookingReleasesTime() {
+        index.remove(ITEM_ID, 1L);
+
+        assertTrue(index.isFree(ITEM_ID, base.plusHours(5), base.plusHours(6)));
+        assertFalse(index.isFree(ITEM_ID, base.plusHours(2), base.plusHours(4)));
+    }
+
+    @Test
+    public void ignoredBookingDoesNotConflictWithItself() {
+        assertFalse(index.isFree(ITEM_ID, base.plusHours(2), base.plusHours(3), 2L));
+        assertFalse(index.isFree(ITEM_ID, base, base.plusHours(10), 1L));
+
+        index.remove(ITEM_ID, 2L);
+
+        assertTrue(index.isFree(ITEM_ID, base, base.plusHours(10), 1L));
+    }
+
+    @Test
+    public void readdedBookingMovesItsInterval() {
+        index.add(new BookingInterval(2L, ITEM_ID, base.plusHours(20), base.plusHours(21)));
+        index.remove(ITEM_ID, 1L);
+
+        assertTrue(index.isFree(ITEM_ID, base.plusHours(2), base.plusHours(3)));
+        assertFalse(index.isFree(ITEM_ID, base.plusHours(20), base.plusHours(21)));
+
+        index.remove(ITEM_ID, 2L);
+
+        assertTrue(index.isFree(ITEM_ID, base.plusHours(20), base.plusHours(21)));
+    }
+
+    @Test
+    public void freeSlotsSkipBookedIntervals() {
+        index.add(new BookingInterval(3L, ITEM_ID, base.plusHours(12), base.plusHours(14)));
+
+        List<FreeSlotResponse> freeSlots = index.findFreeSlots(ITEM_ID, base.minusHours(1), base.plusHours(20));
+
+        assertEquals(List.of(
+                new FreeSlotResponse(base.minusHours(1), base),
+                new FreeSlotResponse(base.plusHours(10), base.plusHours(12)),
+                new FreeSlotResponse(base.plusHours(14), base.plusHours(20))), freeSlots);
+    }
+
+    @Test
+    public void unknownItemIsFreeForWholeWindow() {
+        List<FreeSlotResponse> freeSlots = index.findFreeSlots(42L, base, base.plusHours(1));
+
+        assertEquals(List.of(new FreeSlotResponse(base, base.plusHours(1))), freeSlots);
+    }
+}
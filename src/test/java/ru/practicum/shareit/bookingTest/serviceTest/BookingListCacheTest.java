@@ -0,0 +1,70 @@
+package ru.practicum.shareit.bookingTest.serviceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.dto.BookingPhaseChangedEvent;
+import ru.practicum.shareit.booking.model.dto.BookingResponse;
+import ru.practicum.shareit.booking.service.BookingListCache;
+import ru.practicum.shareit.booking.service.BookingStateFilter;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BookingListCacheTest {
+
+    private static final Long BOOKER_ID = 1L;
+    private static final Long OWNER_ID = 2L;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Supplier<List<BookingResponse>> loader = () -> {
+        loads.incrementAndGet();
+        return List.of(new BookingResponse());
+    };
+
+    @Test
+    public void pageIsLoadedOnceUntilInvalidated() {
+        BookingListCache cache = newCache(EnumSet.noneOf(BookingStateFilter.class));
+
+        cache.get(BOOKER_ID, BookingListCache.Role.BOOKER, BookingStateFilter.ALL, 0, 10, loader);
+        cache.get(BOOKER_ID, BookingListCache.Role.BOOKER, BookingStateFilter.ALL, 0, 10, loader);
+        assertEquals(1, loads.get());
+
+        cache.invalidateAfterCommit(BOOKER_ID, OWNER_ID);
+        cache.get(BOOKER_ID, BookingListCache.Role.BOOKER, BookingStateFilter.ALL, 0, 10, loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void phaseChangeDropsOnlyTimeDependentPages() {
+        BookingListCache cache = newCache(EnumSet.noneOf(BookingStateFilter.class));
+
+        cache.get(OWNER_ID, BookingListCache.Role.OWNER, BookingStateFilter.ALL, 0, 10, loader);
+        cache.get(OWNER_ID, BookingListCache.Role.OWNER, BookingStateFilter.CURRENT, 0, 10, loader);
+
+        cache.onPhaseChanged(new BookingPhaseChangedEvent(Set.of(), Set.of(OWNER_ID)));
+
+        cache.get(OWNER_ID, BookingListCache.Role.OWNER, BookingStateFilter.ALL, 0, 10, loader);
+        cache.get(OWNER_ID, BookingListCache.Role.OWNER, BookingStateFilter.CURRENT, 0, 10, loader);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void disabledFilterIsNotCached() {
+        BookingListCache cache = newCache(EnumSet.of(BookingStateFilter.WAITING));
+
+        cache.get(OWNER_ID, BookingListCache.Role.OWNER, BookingStateFilter.WAITING, 0, 10, loader);
+        cache.get(OWNER_ID, BookingListCache.Role.OWNER, BookingStateFilter.WAITING, 0, 10, loader);
+        assertEquals(2, loads.get());
+    }
+
+    private BookingListCache newCache(Set<BookingStateFilter> disabledFilters) {
+        return new BookingListCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(5), disabledFilters);
+    }
+}
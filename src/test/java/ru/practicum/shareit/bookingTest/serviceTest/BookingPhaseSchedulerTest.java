@@ -0,0 +1,88 @@
+package ru.practicum.shareit.bookingTest.serviceTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.dto.BookingPhaseBoundary;
+import ru.practicum.shareit.booking.model.dto.BookingPhaseChangedEvent;
+import ru.practicum.shareit.booking.service.BookingPhaseScheduler;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BookingPhaseSchedulerTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private BookingRepository bookingRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private BookingPhaseScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        scheduler = new BookingPhaseScheduler(bookingRepository, eventPublisher, transactionManager, Duration.ofHours(1));
+    }
+
+    @Test
+    public void overdueBookingsMoveToTheirCurrentPhase() {
+        when(bookingRepository.findPhaseBoundariesUntil(any())).thenReturn(List.of(
+                new BookingPhaseBoundary(1L, 10L, 20L, now.minusHours(2), now.plusHours(2), BookingPhase.FUTURE),
+                new BookingPhaseBoundary(2L, 11L, 21L, now.minusHours(3), now.minusHours(1), BookingPhase.FUTURE),
+                new BookingPhaseBoundary(3L, 12L, 22L, now.minusHours(3), now.minusHours(1), BookingPhase.CURRENT)));
+
+        scheduler.refill();
+        scheduler.applyDueTransitions();
+
+        verify(bookingRepository).updatePhase(BookingPhase.CURRENT, List.of(1L));
+        verify(bookingRepository).updatePhase(BookingPhase.PAST, List.of(2L, 3L));
+
+        ArgumentCaptor<BookingPhaseChangedEvent> event = ArgumentCaptor.forClass(BookingPhaseChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of(10L, 11L, 12L), event.getValue().getBookerIds());
+        assertEquals(Set.of(20L, 21L, 22L), event.getValue().getOwnerIds());
+    }
+
+    @Test
+    public void transitionsAheadOfTimeStayQueued() {
+        when(bookingRepository.findPhaseBoundariesUntil(any())).thenReturn(List.of(
+                new BookingPhaseBoundary(1L, 10L, 20L, now.plusMinutes(30), now.plusMinutes(50), BookingPhase.FUTURE)));
+
+        scheduler.refill();
+        scheduler.applyDueTransitions();
+
+        verify(bookingRepository, never()).updatePhase(any(), anyCollection());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void phaseBoundariesMatchTimestampFilters() {
+        LocalDateTime start = now.minusHours(1);
+        LocalDateTime end = now.plusHours(1);
+
+        assertEquals(BookingPhase.FUTURE, BookingPhaseScheduler.phaseAt(start, end, start.minusNanos(1000)));
+        assertEquals(BookingPhase.CURRENT, BookingPhaseScheduler.phaseAt(start, end, start));
+        assertEquals(BookingPhase.CURRENT, BookingPhaseScheduler.phaseAt(start, end, end));
+        assertEquals(BookingPhase.PAST, BookingPhaseScheduler.phaseAt(start, end, end.plusNanos(1000)));
+    }
+}
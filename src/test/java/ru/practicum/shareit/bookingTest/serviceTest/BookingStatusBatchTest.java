@@ -0,0 +1,109 @@
+package ru.practicum.shareit.bookingTest.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingRequest;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdate;
+import ru.practicum.shareit.booking.model.dto.BookingStatusUpdateResult;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class BookingStatusBatchTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void approvingBookingOverlappingNewerOneReturnsConflictRow() {
+        User owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "booker-" + System.nanoTime() + "@mail.ru"));
+
+        Item item = itemRepository.save(item(owner));
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Long rejectedId = bookingService.add(booker.getId(), bookingRequest(item.getId(), start, start.plusDays(2))).getId();
+        bookingService.confirmingOrRejectingBookingRequest(owner.getId(), rejectedId, false);
+
+        Long newerId = bookingService.add(booker.getId(), bookingRequest(item.getId(), start.plusDays(1), start.plusDays(3))).getId();
+
+        List<BookingStatusUpdateResult> results = bookingService.confirmingOrRejectingBookingRequests(owner.getId(), List.of(
+                new BookingStatusUpdate(newerId, true),
+                new BookingStatusUpdate(rejectedId, true)));
+
+        assertEquals(HttpStatus.OK.value(), results.get(0).getStatus());
+        assertEquals(HttpStatus.CONFLICT.value(), results.get(1).getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(newerId).orElseThrow().getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(rejectedId).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void approvalKeepsPhaseAdvancedBehindLoadedBooking() {
+        User owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "booker-" + System.nanoTime() + "@mail.ru"));
+        Item item = itemRepository.save(item(owner));
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Long bookingId = bookingService.add(booker.getId(), bookingRequest(item.getId(), start, start.plusDays(1))).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Booking staleBooking = bookingRepository.findById(bookingId).orElseThrow();
+            bookingRepository.updatePhase(BookingPhase.CURRENT, List.of(bookingId));
+
+            bookingService.confirmingOrRejectingBookingRequest(owner.getId(), bookingId, true);
+
+            assertEquals(BookingPhase.FUTURE, staleBooking.getPhase());
+        });
+
+        Booking approvedBooking = bookingRepository.findById(bookingId).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, approvedBooking.getStatus());
+        assertEquals(BookingPhase.CURRENT, approvedBooking.getPhase());
+    }
+
+    private Item item(User owner) {
+        Item item = new Item();
+        item.setName("Палатка");
+        item.setDescription("Трёхместная палатка");
+        item.setAvailable(true);
+        item.setOwner(owner);
+
+        return item;
+    }
+
+    private BookingRequest bookingRequest(Long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setItemId(itemId);
+        bookingRequest.setStart(start);
+        bookingRequest.setEnd(end);
+
+        return bookingRequest;
+    }
+}
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.itemTest.serviceTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.CommentRequest;
+import ru.practicum.shareit.item.model.dto.CommentResponse;
+import ru.practicum.shareit.item.model.dto.PendingComment;
+import ru.practicum.shareit.item.service.CommentWriteBehind;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.CommentBatchRepository;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:/shareit-comment-write-behind",
+        "shareit.comments.write-behind.enabled=true",
+        "shareit.comments.write-behind.journal=${java.io.tmpdir}/shareit-comment-write-behind-test.ndjson",
+        "shareit.comments.write-behind.flush-interval=PT0.05S"})
+@ActiveProfiles({"test", "sequence-ids"})
+public class CommentWriteBehindTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private CommentBatchRepository commentBatchRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void acceptedCommentIsWrittenByBackgroundWriter() throws InterruptedException {
+        User owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+        User author = userRepository.save(new User(null, "author", "author-" + System.nanoTime() + "@mail.ru"));
+
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Аккумуляторная дрель");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, author, item, now.minusDays(2), now.minusDays(1),
+                BookingStatus.APPROVED, BookingPhase.PAST));
+
+        CommentRequest commentRequest = new CommentRequest();
+        commentRequest.setText("Отличная дрель");
+
+        CommentResponse response = itemService.addComment(author.getId(), item.getId(), commentRequest);
+
+        assertNotNull(response.getId());
+        assertEquals("author", response.getAuthorName());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!commentRepository.existsById(response.getId()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(commentRepository.existsById(response.getId()));
+    }
+
+    @Test
+    public void journalRecoverySkipsRowsRejectedByDatabase() throws Exception {
+        User author = userRepository.save(new User(null, "author", "author-" + System.nanoTime() + "@mail.ru"));
+        Long itemId = item("Лестница", "Стремянка на шесть ступеней").getId();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        PendingComment rejected = new PendingComment(transactionTemplate.execute(status -> commentBatchRepository.nextId()),
+                Long.MAX_VALUE, itemId, "Автор удалён", now);
+        PendingComment recovered = new PendingComment(transactionTemplate.execute(status -> commentBatchRepository.nextId()),
+                author.getId(), itemId, "Удобная стремянка", now);
+
+        StringBuilder segment = new StringBuilder();
+        List<Long> segmentIds = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            PendingComment comment = new PendingComment(transactionTemplate.execute(status -> commentBatchRepository.nextId()),
+                    author.getId(), itemId, "Комментарий " + i, now);
+            segmentIds.add(comment.getId());
+            segment.append(objectMapper.writeValueAsString(comment)).append("\n");
+        }
+
+        Path journalDir = Files.createTempDirectory("shareit-comment-recovery-test");
+        Path journalPath = journalDir.resolve("comments.ndjson");
+        Files.writeString(journalPath, objectMapper.writeValueAsString(rejected) + "\n"
+                + objectMapper.writeValueAsString(recovered) + "\n", StandardCharsets.UTF_8);
+        Files.writeString(journalDir.resolve("comments.ndjson.000003"), segment, StandardCharsets.UTF_8);
+
+        CommentWriteBehind recovery = new CommentWriteBehind(commentBatchRepository, transactionManager, objectMapper,
+                journalPath, 100, 100, 10, Duration.ofMillis(50), Duration.ofMillis(100));
+        recovery.afterSingletonsInstantiated();
+        recovery.shutdown();
+
+        assertFalse(commentRepository.existsById(rejected.getId()));
+        assertTrue(commentRepository.existsById(recovered.getId()));
+        assertEquals(segmentIds.size(), commentRepository.findAllById(segmentIds).size());
+        assertEquals(13, itemRepository.findById(itemId).orElseThrow().getCommentCount());
+        assertEquals(0, journalFiles(journalDir).size());
+    }
+
+    @Test
+    public void writtenJournalSegmentsAreDeleted() throws Exception {
+        User author = userRepository.save(new User(null, "author", "author-" + System.nanoTime() + "@mail.ru"));
+        Long itemId = item("Пила", "Ножовка по дереву").getId();
+
+        Path journalDir = Files.createTempDirectory("shareit-comment-rotation-test");
+        CommentWriteBehind writeBehind = new CommentWriteBehind(commentBatchRepository, transactionManager, objectMapper,
+                journalDir.resolve("comments.ndjson"), 2, 100, 10, Duration.ofMillis(20), Duration.ofMillis(100));
+        writeBehind.afterSingletonsInstantiated();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            String text = "Комментарий " + i;
+            ids.add(transactionTemplate.execute(status ->
+                    writeBehind.enqueue(author.getId(), itemId, text, LocalDateTime.now()).getId()));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((commentRepository.findAllById(ids).size() < ids.size() || journalFiles(journalDir).size() > 1)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(ids.size(), commentRepository.findAllById(ids).size());
+        assertEquals(List.of("comments.ndjson.000004"), journalFiles(journalDir));
+
+        writeBehind.shutdown();
+        assertEquals(0, journalFiles(journalDir).size());
+    }
+
+    private Item item(String name, String description) {
+        User owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        return itemRepository.save(item);
+    }
+
+    private List<String> journalFiles(Path journalDir) throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+}
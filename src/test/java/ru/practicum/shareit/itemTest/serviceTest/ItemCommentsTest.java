@@ -0,0 +1,123 @@
+package ru.practicum.shareit.itemTest.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.CommentListSlice;
+import ru.practicum.shareit.item.model.dto.CommentRequest;
+import ru.practicum.shareit.item.model.dto.CommentResponse;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.model.dto.ItemResponse;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+public class ItemCommentsTest {
+
+    private static final int COMMENTS = 12;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void itemShowsCountAndLatestCommentsWhileEndpointPagesThroughAll() {
+        User owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+        User author = userRepository.save(new User(null, "author", "author-" + System.nanoTime() + "@mail.ru"));
+
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Аккумуляторная дрель");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, author, item, now.minusDays(2), now.minusDays(1),
+                BookingStatus.APPROVED, BookingPhase.PAST));
+
+        List<Long> commentIds = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            CommentRequest commentRequest = new CommentRequest();
+            commentRequest.setText("Отзыв " + i);
+            commentIds.add(itemService.addComment(author.getId(), item.getId(), commentRequest).getId());
+        }
+
+        ItemResponse itemResponse = itemService.getItemResponseById(item.getId());
+        assertEquals(COMMENTS, itemResponse.getCommentCount());
+        assertEquals(10, itemResponse.getComments().size());
+        assertEquals("Отзыв 2", itemResponse.getComments().get(0).getText());
+        assertEquals("Отзыв 11", itemResponse.getComments().get(9).getText());
+
+        List<Long> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            CommentListSlice slice = itemService.getComments(item.getId(), cursor, 5);
+            for (CommentResponse comment : slice.getComments()) {
+                pagedIds.add(comment.getId());
+            }
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(COMMENTS, pagedIds.size());
+        assertEquals(commentIds.get(COMMENTS - 1), pagedIds.get(0));
+        assertEquals(commentIds.get(0), pagedIds.get(COMMENTS - 1));
+
+        CommentListSlice lastPage = itemService.getComments(item.getId(), null, COMMENTS);
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    public void updateItemKeepsCommentCountIncrementedBehindLoadedEntity() {
+        User owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+
+        Item item = new Item();
+        item.setName("Пила");
+        item.setDescription("Ручная пила");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        Long itemId = itemRepository.save(item).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Item staleItem = itemRepository.findById(itemId).orElseThrow();
+            itemRepository.incrementCommentCount(itemId);
+
+            ItemDto itemDto = new ItemDto();
+            itemDto.setName("Пила по дереву");
+            itemService.updateItem(owner.getId(), itemId, itemDto);
+
+            assertEquals(0, staleItem.getCommentCount());
+        });
+
+        Item updatedItem = itemRepository.findById(itemId).orElseThrow();
+        assertEquals("Пила по дереву", updatedItem.getName());
+        assertEquals(1, updatedItem.getCommentCount());
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.itemTest.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.InvertedIndexItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.JpqlItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ItemSearchIndexTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemSearchEngine itemSearchEngine;
+
+    @Autowired
+    private InvertedIndexItemSearchEngine indexEngine;
+
+    @Autowired
+    private JpqlItemSearchEngine jpqlEngine;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void itemReachesSearchIndexOnlyAfterCommit() {
+        User owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemService.add(owner.getId(), itemDto("Бензопила откатная"));
+
+            assertTrue(itemSearchEngine.search("бензопила откатная", 0, 10).isEmpty());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(itemSearchEngine.search("бензопила откатная", 0, 10).isEmpty());
+
+        Long itemId = new TransactionTemplate(transactionManager)
+                .execute(status -> itemService.add(owner.getId(), itemDto("Бензопила откатная")).getId());
+
+        assertEquals(itemId, itemSearchEngine.search("бензопила откатная", 0, 10).get(0).getId());
+    }
+
+    @Test
+    public void bothEnginesMatchPatternCharactersLiterally() {
+        User owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Set<Long> created = new HashSet<>();
+        for (String name : List.of("Скидка 50% на прокат", "Скидка 500 рублей", "Ключ torx_t25", "Ключ torx t25",
+                "Набор бит c:\\bits", "Набор бит c:bits")) {
+            created.add(transactionTemplate.execute(status -> itemService.add(owner.getId(), itemDto(name)).getId()));
+        }
+
+        for (String query : List.of("50%", "0%", "x_t", "torx_", "c:\\b", "%", "_")) {
+            Set<Long> indexIds = foundAmong(indexEngine.search(query, 0, 1000), created);
+            Set<Long> jpqlIds = foundAmong(jpqlEngine.search(query, 0, 1000), created);
+
+            assertEquals(1, indexIds.size(), query);
+            assertEquals(indexIds, jpqlIds, query);
+        }
+    }
+
+    private Set<Long> foundAmong(List<Item> items, Set<Long> itemIds) {
+        Set<Long> found = new HashSet<>();
+        for (Item item : items) {
+            if (itemIds.contains(item.getId())) {
+                found.add(item.getId());
+            }
+        }
+
+        return found;
+    }
+
+    private ItemDto itemDto(String name) {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName(name);
+        itemDto.setDescription("Инструмент для сада");
+        itemDto.setAvailable(true);
+
+        return itemDto;
+    }
+}
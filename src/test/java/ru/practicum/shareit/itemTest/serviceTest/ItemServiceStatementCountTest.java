@@ -0,0 +1,107 @@
+package ru.practicum.shareit.itemTest.serviceTest;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.dto.ItemResponse;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class ItemServiceStatementCountTest {
+
+    private static final int ITEMS_ON_PAGE = 3;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User author;
+    private List<Item> items;
+
+    @BeforeEach
+    public void setUp() {
+        owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+        author = userRepository.save(new User(null, "author", "author-" + System.nanoTime() + "@mail.ru"));
+
+        items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_ON_PAGE; i++) {
+            Item item = new Item();
+            item.setName("Дрель " + i);
+            item.setDescription("Аккумуляторная дрель");
+            item.setAvailable(true);
+            item.setOwner(owner);
+            items.add(itemRepository.save(item));
+        }
+    }
+
+    @Test
+    public void statementCountDoesNotGrowWithComments() {
+        addComments(1);
+        long statementsWithOneComment = countStatementsForOwnerPage();
+
+        addComments(5);
+        long statementsWithSixComments = countStatementsForOwnerPage();
+
+        assertEquals(statementsWithOneComment, statementsWithSixComments);
+
+        List<ItemResponse> responses = itemService.getAllItemsFromUser(0, 10, owner.getId());
+        assertEquals(ITEMS_ON_PAGE, responses.size());
+        for (ItemResponse response : responses) {
+            assertEquals(6, response.getComments().size());
+            assertEquals("author", response.getComments().get(0).getAuthorName());
+        }
+    }
+
+    private long countStatementsForOwnerPage() {
+        // Первый вызов прогревает кэши, чтобы сравнивались только запросы самой страницы.
+        itemService.getAllItemsFromUser(0, 10, owner.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        itemService.getAllItemsFromUser(0, 10, owner.getId());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addComments(int commentsPerItem) {
+        for (Item item : items) {
+            for (int i = 0; i < commentsPerItem; i++) {
+                Comment comment = new Comment();
+                comment.setItem(item);
+                comment.setAuthor(author);
+                comment.setText("Отличная вещь");
+                comment.setCreated(LocalDateTime.now());
+                commentRepository.save(comment);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.migrationTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class IndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void bookerBookingsUseBookerStartIndex() {
+        String plan = explain("SELECT * FROM Bookings " +
+                "WHERE booker_id = 1 AND start_date_time > TIMESTAMP '2024-01-01 00:00:00'");
+
+        assertTrue(plan.contains("BOOKINGS_BOOKER_ID_START_IDX"), plan);
+    }
+
+    @Test
+    public void itemBookingsUseItemStatusEndIndex() {
+        String plan = explain("SELECT * FROM Bookings " +
+                "WHERE item_id = 1 AND status = 'APPROVED' AND end_date_time < TIMESTAMP '2024-01-01 00:00:00'");
+
+        assertTrue(plan.contains("BOOKINGS_ITEM_ID_STATUS_END_IDX"), plan);
+    }
+
+    @Test
+    public void bookerPhaseBookingsUseBookerPhaseStartIndex() {
+        String plan = explain("SELECT * FROM Bookings " +
+                "WHERE booker_id = 1 AND phase = 'CURRENT' AND status = 'APPROVED' " +
+                "AND (start_date_time < TIMESTAMP '2024-01-01 00:00:00' " +
+                "OR (start_date_time = TIMESTAMP '2024-01-01 00:00:00' AND id < 10)) " +
+                "ORDER BY booker_id, phase, start_date_time DESC, id DESC");
+
+        assertTrue(plan.contains("BOOKINGS_BOOKER_ID_PHASE_START_IDX"), plan);
+    }
+
+    @Test
+    public void commentEligibilityUsesBookerItemStatusEndIndex() {
+        String plan = explain("SELECT 1 FROM Bookings " +
+                "WHERE booker_id = 1 AND item_id = 1 AND end_date_time < TIMESTAMP '2024-01-01 00:00:00' AND status = 'APPROVED'");
+
+        assertTrue(plan.contains("BOOKINGS_BOOKER_ID_ITEM_ID_STATUS_END_IDX"), plan);
+    }
+
+    @Test
+    public void ownerItemsDoNotScanTable() {
+        String plan = explain("SELECT * FROM Items WHERE owner_id = 1");
+
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    public void requestorRequestsUseRequestorCreationDateIndex() {
+        String plan = explain("SELECT * FROM Item_Request " +
+                "WHERE requestor_id = 1 AND creation_date > TIMESTAMP '2024-01-01 00:00:00'");
+
+        assertTrue(plan.contains("ITEM_REQUEST_REQUESTOR_ID_CREATION_DATE_IDX"), plan);
+    }
+
+    @Test
+    public void requestResponseItemsDoNotScanTable() {
+        String plan = explain("SELECT * FROM Items WHERE request_id IN (1, 2, 3)");
+
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    public void itemCommentsUseItemCreatedIndex() {
+        String plan = explain("SELECT * FROM Comments " +
+                "WHERE item_id = 1 AND created < TIMESTAMP '2024-01-01 00:00:00' ORDER BY created DESC, id DESC");
+
+        assertTrue(plan.contains("COMMENTS_ITEM_ID_CREATED_IDX"), plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
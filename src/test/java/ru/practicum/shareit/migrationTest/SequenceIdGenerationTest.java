@@ -0,0 +1,57 @@
+package ru.practicum.shareit.migrationTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.model.dto.UserImportResult;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:/shareit-sequence-ids")
+@ActiveProfiles({"test", "sequence-ids"})
+public class SequenceIdGenerationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void usersTakeIdsFromPooledSequence() {
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'USERS_SEQ'", Long.class);
+        assertEquals(50L, increment);
+
+        String prefix = "sequence-" + System.nanoTime();
+        Set<Long> ids = new HashSet<>();
+
+        for (int i = 0; i < 3; i++) {
+            User user = userRepository.save(new User(null, "user " + i, prefix + "-" + i + "@mail.ru"));
+            ids.add(user.getId());
+        }
+
+        List<UserImportResult> results = userService.importUsers(List.of(
+                new UserDto(null, "imported", prefix + "-imported@mail.ru")));
+        ids.add(results.get(0).getUser().getId());
+
+        assertEquals(4, ids.size());
+        for (Long id : ids) {
+            assertTrue(userRepository.existsById(id));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.requestTest.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.model.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.dto.ItemRequestAnsweredEvent;
+import ru.practicum.shareit.request.service.ItemRequestNotifier;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ItemRequestNotifierTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void subscriptionOpensEventStream() throws Exception {
+        User requestor = userRepository.save(new User(null, "requestor", "requestor-" + System.nanoTime() + "@mail.ru"));
+
+        mockMvc.perform(get("/requests/subscribe").header("X-Sharer-User-Id", requestor.getId()))
+                .andExpect(request().asyncStarted());
+
+        mockMvc.perform(get("/requests/subscribe").header("X-Sharer-User-Id", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void answerIsDeliveredAfterCommit() throws Exception {
+        User requestor = userRepository.save(new User(null, "requestor", "requestor-" + System.nanoTime() + "@mail.ru"));
+        User owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+        ItemRequest itemRequest = itemRequestRepository.save(
+                new ItemRequest(null, requestor, "Нужна дрель", LocalDateTime.now(), new ArrayList<>()));
+
+        MvcResult subscription = mockMvc.perform(get("/requests/subscribe").header("X-Sharer-User-Id", requestor.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Дрель");
+        itemDto.setDescription("Аккумуляторная дрель");
+        itemDto.setAvailable(true);
+        itemDto.setRequestId(itemRequest.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemService.add(owner.getId(), itemDto);
+
+            assertFalse(streamed(subscription).contains("item-request-answered"));
+        });
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!streamed(subscription).contains("Аккумуляторная дрель") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(streamed(subscription).contains("event:item-request-answered"));
+        assertTrue(streamed(subscription).contains("Аккумуляторная дрель"));
+        assertTrue(MediaType.TEXT_EVENT_STREAM.isCompatibleWith(MediaType.parseMediaType(subscription.getResponse().getContentType())));
+    }
+
+    @Test
+    public void overflowClosesSubscriptionOnSenderThread() throws Exception {
+        User requestor = userRepository.save(new User(null, "requestor", "requestor-" + System.nanoTime() + "@mail.ru"));
+        ItemRequestNotifier notifier = new ItemRequestNotifier(userService, Duration.ofMinutes(1), 1, 2, Duration.ofSeconds(5));
+
+        try {
+            SseEmitter emitter = notifier.subscribe(requestor.getId());
+
+            // Пока монитор эмиттера занят, отправка стоит, и очередь из одного элемента переполняется
+            synchronized (emitter) {
+                for (long id = 1; id <= 3; id++) {
+                    ItemDto item = new ItemDto();
+                    item.setId(id);
+                    notifier.onItemRequestAnswered(new ItemRequestAnsweredEvent(requestor.getId(), item));
+                }
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!isCompleted(emitter) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertThrows(IllegalStateException.class, () -> emitter.send("probe"));
+        } finally {
+            notifier.shutdown();
+        }
+    }
+
+    private String streamed(MvcResult subscription) {
+        return new String(subscription.getResponse().getContentAsByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private boolean isCompleted(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().comment("probe"));
+            return false;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.requestTest.serviceTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.StatementCountingInspector;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class ItemRequestServiceStatementCountTest {
+
+    private static final int REQUESTS = 3;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User requestor;
+    private User owner;
+    private List<ItemRequest> requests;
+
+    @BeforeEach
+    public void setUp() {
+        requestor = userRepository.save(new User(null, "requestor", "requestor-" + System.nanoTime() + "@mail.ru"));
+        owner = userRepository.save(new User(null, "owner", "owner-" + System.nanoTime() + "@mail.ru"));
+
+        requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequest request = new ItemRequest();
+            request.setRequestor(requestor);
+            request.setDescription("Нужна дрель " + i);
+            request.setCreationDate(LocalDateTime.now().minusHours(REQUESTS - i));
+            requests.add(itemRequestRepository.save(request));
+        }
+    }
+
+    @Test
+    public void statementCountDoesNotGrowWithResponseItems() {
+        addResponseItems(1);
+        int statementsWithOneItem = countStatementsForRequestorPage();
+
+        addResponseItems(2);
+        int statementsWithThreeItems = countStatementsForRequestorPage();
+
+        assertEquals(statementsWithOneItem, statementsWithThreeItems);
+
+        List<ItemRequestDto> page = itemRequestService.getByRequestor(0, 2, requestor.getId());
+        assertEquals(2, page.size());
+        assertEquals("Нужна дрель 2", page.get(0).getDescription());
+        assertEquals(3, page.get(0).getResponseItems().size());
+        assertEquals(requests.get(2).getId(), page.get(0).getResponseItems().get(0).getRequestId());
+    }
+
+    private int countStatementsForRequestorPage() {
+        // Первый вызов прогревает кэш пользователей, чтобы сравнивались только запросы самой страницы.
+        itemRequestService.getByRequestor(0, 10, requestor.getId());
+
+        StatementCountingInspector.reset();
+        itemRequestService.getByRequestor(0, 10, requestor.getId());
+
+        return StatementCountingInspector.count();
+    }
+
+    private void addResponseItems(int itemsPerRequest) {
+        for (ItemRequest request : requests) {
+            for (int i = 0; i < itemsPerRequest; i++) {
+                Item item = new Item();
+                item.setName("Дрель");
+                item.setDescription("Аккумуляторная дрель");
+                item.setAvailable(true);
+                item.setOwner(owner);
+                item.setRequest(request);
+                itemRepository.save(item);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.transactionTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=false")
+@AutoConfigureMockMvc
+public class ConnectionHoldTimeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ConnectionRecorder recorder;
+
+    @Test
+    public void connectionIsReleasedBeforeResponseIsRendered() throws Exception {
+        User owner = userRepository.save(new User(null, "owner", "hold-" + System.nanoTime() + "@mail.ru"));
+
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Аккумуляторная дрель");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+
+        recorder.reset();
+        long requestStart = System.nanoTime();
+
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        long requestNanos = System.nanoTime() - requestStart;
+
+        assertEquals(0, recorder.openConnections(), "соединение должно быть возвращено в пул к концу запроса");
+        assertEquals(1, recorder.acquisitions(), "весь запрос должен обслуживаться одной транзакцией сервиса");
+        assertTrue(recorder.heldNanos() < requestNanos, "соединение не должно удерживаться на всё время запроса");
+    }
+
+    @TestConfiguration
+    static class RecorderConfiguration {
+
+        @Bean
+        ConnectionRecorder connectionRecorder() {
+            return new ConnectionRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)) {
+                        return new RecordingDataSource(dataSource);
+                    }
+
+                    return bean;
+                }
+            };
+        }
+    }
+
+    static class ConnectionRecorder {
+
+        private static final AtomicInteger OPEN = new AtomicInteger();
+        private static final AtomicInteger ACQUISITIONS = new AtomicInteger();
+        private static final AtomicLong HELD_NANOS = new AtomicLong();
+
+        void reset() {
+            ACQUISITIONS.set(0);
+            HELD_NANOS.set(0);
+        }
+
+        int openConnections() {
+            return OPEN.get();
+        }
+
+        int acquisitions() {
+            return ACQUISITIONS.get();
+        }
+
+        long heldNanos() {
+            return HELD_NANOS.get();
+        }
+    }
+
+    static class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return record(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return record(super.getConnection(username, password));
+        }
+
+        private Connection record(Connection connection) {
+            long acquiredAt = System.nanoTime();
+            AtomicInteger closed = new AtomicInteger();
+            ConnectionRecorder.OPEN.incrementAndGet();
+            ConnectionRecorder.ACQUISITIONS.incrementAndGet();
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && closed.getAndIncrement() == 0) {
+                            ConnectionRecorder.OPEN.decrementAndGet();
+                            ConnectionRecorder.HELD_NANOS.addAndGet(System.nanoTime() - acquiredAt);
+                        }
+
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
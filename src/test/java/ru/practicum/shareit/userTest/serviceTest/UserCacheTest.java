@@ -0,0 +1,38 @@
+package ru.practicum.shareit.userTest.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class UserCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void rolledBackUpdateDoesNotReachCache() {
+        Long userId = userService.addUser(new UserDto(null, "before", "cache-" + System.nanoTime() + "@mail.ru")).getId();
+        assertEquals("before", userService.getUserById(userId).getName());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.updateUser(userId, new UserDto(null, "after", null));
+            status.setRollbackOnly();
+        });
+
+        assertEquals("before", userService.getUserById(userId).getName());
+
+        userService.updateUser(userId, new UserDto(null, "after", null));
+
+        assertEquals("after", userService.getUserById(userId).getName());
+    }
+}
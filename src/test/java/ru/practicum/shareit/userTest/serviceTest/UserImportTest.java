@@ -0,0 +1,44 @@
+package ru.practicum.shareit.userTest.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import ru.practicum.shareit.user.model.dto.UserDto;
+import ru.practicum.shareit.user.model.dto.UserImportResult;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+public class UserImportTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void importReportsEveryRowInInputOrder() {
+        String prefix = "import-" + System.nanoTime();
+        userService.addUser(new UserDto(null, "existing", prefix + "-taken@mail.ru"));
+
+        List<UserImportResult> results = userService.importUsers(List.of(
+                new UserDto(null, "first", prefix + "-1@mail.ru"),
+                new UserDto(null, "taken", prefix + "-taken@mail.ru"),
+                new UserDto(null, "broken", "not-an-email"),
+                new UserDto(null, "second", prefix + "-2@mail.ru"),
+                new UserDto(null, "duplicate", prefix + "-1@mail.ru")));
+
+        assertEquals(HttpStatus.CREATED.value(), results.get(0).getStatus());
+        assertEquals(HttpStatus.CONFLICT.value(), results.get(1).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(2).getStatus());
+        assertEquals(HttpStatus.CREATED.value(), results.get(3).getStatus());
+        assertEquals(HttpStatus.CONFLICT.value(), results.get(4).getStatus());
+
+        Long importedId = results.get(3).getUser().getId();
+        assertNotNull(importedId);
+        assertEquals(prefix + "-2@mail.ru", userService.getUserById(importedId).getEmail());
+    }
+}
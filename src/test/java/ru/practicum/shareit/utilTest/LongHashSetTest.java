@@ -0,0 +1,28 @@
+package ru.practicum.shareit.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.util.LongHashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void keepsValuesAcrossResizes() {
+        LongHashSet set = new LongHashSet();
+
+        for (long value = 1; value <= 1000; value++) {
+            assertTrue(set.add(value * 31));
+        }
+
+        assertFalse(set.add(31));
+        assertEquals(1000, set.size());
+
+        for (long value = 1; value <= 1000; value++) {
+            assertTrue(set.contains(value * 31));
+        }
+        assertFalse(set.contains(30));
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.utilTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.util.RequestAdmissionFilter;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestAdmissionFilterTest {
+
+    @Test
+    public void requestBeyondPoolSizeAndMarginGetsServiceUnavailable() throws Exception {
+        RequestAdmissionFilter filter = new RequestAdmissionFilter(1, 1, Duration.ofMillis(50));
+        CountDownLatch admitted = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Runnable longRequest = () -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/items"), new MockHttpServletResponse(), (request, response) -> {
+                    admitted.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        Thread first = new Thread(longRequest);
+        Thread second = new Thread(longRequest);
+        first.start();
+        second.start();
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), rejected, (request, response) -> {
+        });
+
+        release.countDown();
+        first.join();
+        second.join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.utilTest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.RequestEntityLoader;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestEntityLoaderTest {
+
+    private final RequestEntityLoader entityLoader = new RequestEntityLoader();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    public void sameEntityIsLoadedOncePerRequestTransaction() {
+        ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+        TransactionSynchronizationManager.initSynchronization();
+
+        Optional<User> first = entityLoader.find(User.class, 1L, this::loadUser);
+        Optional<User> second = entityLoader.find(User.class, 1L, this::loadUser);
+        entityLoader.find(User.class, 2L, this::loadUser);
+
+        assertSame(first.get(), second.get());
+        assertEquals(2, loads.get());
+        assertEquals(1, RequestEntityLoader.coalescedLookups(attributes));
+    }
+
+    @Test
+    public void transactionRegistersOneClearingAndReleasesItsResource() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        TransactionSynchronizationManager.initSynchronization();
+
+        entityLoader.find(User.class, 1L, this::loadUser);
+        entityLoader.find(User.class, 2L, this::loadUser);
+        entityLoader.find(User.class, 3L, this::loadUser);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+    }
+
+    @Test
+    public void lookupsOutsideTransactionAreNotShared() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        entityLoader.find(User.class, 1L, this::loadUser);
+        entityLoader.find(User.class, 1L, this::loadUser);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void missingEntityIsNotRemembered() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertTrue(entityLoader.find(User.class, 1L, userId -> Optional.empty()).isEmpty());
+        assertTrue(entityLoader.find(User.class, 1L, this::loadUser).isPresent());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void lookupsOutsideRequestAreNotShared() {
+        entityLoader.find(User.class, 1L, this::loadUser);
+        entityLoader.find(User.class, 1L, this::loadUser);
+
+        assertEquals(2, loads.get());
+    }
+
+    private Optional<User> loadUser(Long userId) {
+        loads.incrementAndGet();
+        return Optional.of(new User(userId, "user", "user" + userId + "@mail.ru"));
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.utilTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.controller.BookingResponseSerializer;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.dto.BookingResponse;
+import ru.practicum.shareit.item.controller.ItemResponseSerializer;
+import ru.practicum.shareit.item.model.dto.CommentResponse;
+import ru.practicum.shareit.item.model.dto.ItemResponse;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResponseSerializersTest {
+
+    private final ObjectMapper reflectiveMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ObjectMapper handWrittenMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new SimpleModule()
+                    .addSerializer(BookingResponse.class, new BookingResponseSerializer())
+                    .addSerializer(ItemResponse.class, new ItemResponseSerializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    public void bookingResponseMatchesReflectiveSerialization() throws Exception {
+        BookingResponse.ItemRes item = new BookingResponse.ItemRes();
+        item.setId(3L);
+        item.setName("Дрель \"Макита\"");
+        item.setDescription(null);
+
+        BookingResponse booking = new BookingResponse();
+        booking.setId(1L);
+        booking.setStart(LocalDateTime.of(2024, 1, 1, 10, 0));
+        booking.setEnd(LocalDateTime.of(2024, 1, 2, 10, 0, 30, 5000));
+        booking.setStatus(BookingStatus.APPROVED);
+        booking.setBooker(new User(2L, "booker", "booker@mail.ru"));
+        booking.setItem(item);
+
+        assertSameJson(List.of(booking, new BookingResponse()));
+    }
+
+    @Test
+    public void itemResponseMatchesReflectiveSerialization() throws Exception {
+        CommentResponse comment = new CommentResponse();
+        comment.setId(5L);
+        comment.setText("Отлично\nработает");
+        comment.setAuthorName("author");
+        comment.setCreated(LocalDateTime.of(2024, 1, 3, 12, 0));
+
+        ItemResponse item = new ItemResponse();
+        item.setId(3L);
+        item.setName("Дрель");
+        item.setDescription("Аккумуляторная дрель");
+        item.setLastBooking(LocalDateTime.of(2024, 1, 1, 10, 0));
+        item.setAvailable(true);
+        item.setCommentCount(12);
+        item.setComments(List.of(comment));
+
+        assertSameJson(List.of(item, new ItemResponse()));
+    }
+
+    private void assertSameJson(List<?> values) throws Exception {
+        assertEquals(reflectiveMapper.writeValueAsString(values), handWrittenMapper.writeValueAsString(values));
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.utilTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.StatementCountingInspector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ServiceMetricsTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void serviceAndRepositoryCallsAreTimedWithPageSizeBucket() {
+        User owner = userRepository.save(new User(null, "owner", "metrics-" + System.nanoTime() + "@mail.ru"));
+
+        StatementCountingInspector.reset();
+        itemService.getAllItemsFromUser(0, 15, owner.getId());
+
+        Timer serviceTimer = meterRegistry.find("shareit.service")
+                .tag("class", "ItemService")
+                .tag("method", "getAllItemsFromUser")
+                .tag("size", "le20")
+                .tag("outcome", "success")
+                .timer();
+        assertNotNull(serviceTimer);
+        assertEquals(1, serviceTimer.count());
+
+        assertNotNull(meterRegistry.find("shareit.repository").tag("class", "ItemRepository").timer());
+        assertTrue(StatementCountingInspector.count() > 0);
+    }
+}